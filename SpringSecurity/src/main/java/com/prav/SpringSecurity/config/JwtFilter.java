@@ -1,16 +1,18 @@
 package com.prav.SpringSecurity.config;
 
 import com.prav.SpringSecurity.service.JWTService;
-import com.prav.SpringSecurity.service.MyUserDetailsService;
+import com.prav.SpringSecurity.service.UserDetailsCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -25,27 +27,33 @@ public class JwtFilter extends OncePerRequestFilter {
     private JWTService jwtService;
 
     @Autowired
-    ApplicationContext context;
+    private UserDetailsCache userDetailsCache;
+
+    // Opt-in: take the authorities from the token's claims. The user is still looked up, from the
+    // cache, so a token issued before the user's last password change is refused on every node
+    @Value("${security.jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 //        Bearer TOKEN
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        Claims claims = null;
 
         if(authHeader!=null&&authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractUserName(token);
+            // Verified once here; the username and expiry checks below reuse these claims
+            claims = jwtService.verify(authHeader.substring(7));
         }
 
-        if(username!=null&& SecurityContextHolder.getContext().getAuthentication()==null){
+        if(claims!=null&&claims.getSubject()!=null&& SecurityContextHolder.getContext().getAuthentication()==null){
 
-            UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
+            UserDetails userDetails = loadUser(claims.getSubject());
 
-            if(jwtService.validateToken(token, userDetails)){
-                UsernamePasswordAuthenticationToken  authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            if(userDetails!=null&&jwtService.validateToken(claims, userDetails)){
+                // Stateless mode trusts the roles claim; otherwise the authorities come from the user
+                UsernamePasswordAuthenticationToken  authToken = stateless
+                        ? new UsernamePasswordAuthenticationToken(claims.getSubject(), null, jwtService.authorities(claims))
+                        : new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -53,4 +61,13 @@ public class JwtFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Null when the token's user no longer exists; the request then goes on unauthenticated
+    private UserDetails loadUser(String username) {
+        try {
+            return userDetailsCache.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
@@ -1,10 +1,21 @@
 package com.prav.SpringSecurity.controller;
 
+import com.prav.SpringSecurity.model.PasswordChange;
 import com.prav.SpringSecurity.model.Users;
+import com.prav.SpringSecurity.service.LoginRateLimiter;
+import com.prav.SpringSecurity.service.PasswordHashingBusyException;
 import com.prav.SpringSecurity.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -14,13 +25,57 @@ public class UserController {
     @Autowired
     private UserService service;
 
+    @Autowired
+    private LoginRateLimiter rateLimiter;
+
     @PostMapping("/register")
-    public Users register(@RequestBody Users user){
-        return service.register(user);
+    public ResponseEntity<Users> register(@RequestBody Users user, HttpServletRequest request){
+        if (!rateLimiter.tryAcquire(request.getRemoteAddr(), null)) {
+            return tooManyRequests();
+        }
+        try {
+            return ResponseEntity.ok(service.register(user));
+        } catch (DataIntegrityViolationException e) {
+            // username is unique
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests();
+        }
     }
 
     @PostMapping("/login")
-    public String login(@RequestBody Users user){
-        return service.verify(user);
+    public ResponseEntity<String> login(@RequestBody Users user, HttpServletRequest request){
+        if (!rateLimiter.tryAcquire(request.getRemoteAddr(), user.getUsername())) {
+            return tooManyRequests();
+        }
+        try {
+            return ResponseEntity.ok(service.verify(user));
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests();
+        }
+    }
+
+    // The user is the one the request is authenticated as, and has to give their current password too
+    @PutMapping("/password")
+    public ResponseEntity<Void> changePassword(@RequestBody PasswordChange change, Authentication authentication,
+                                               HttpServletRequest request){
+        if (change.currentPassword() == null || change.newPassword() == null || change.newPassword().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!rateLimiter.tryAcquire(request.getRemoteAddr(), authentication.getName())) {
+            return tooManyRequests();
+        }
+        try {
+            service.changePassword(authentication.getName(), change.currentPassword(), change.newPassword());
+            return ResponseEntity.noContent().build();
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests();
+        }
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
     }
 }
@@ -0,0 +1,5 @@
+package com.prav.SpringSecurity.model;
+
+// Body of PUT /password
+public record PasswordChange(String currentPassword, String newPassword) {
+}
@@ -0,0 +1,41 @@
+package com.prav.SpringSecurity.model;
+
+import jakarta.persistence.*;
+
+// A logged-out token, shared through the database so every node denies it
+@Entity
+@Table(name = "revoked_tokens", uniqueConstraints = @UniqueConstraint(name = "uk_revoked_tokens_jti", columnNames = "jti"))
+public class RevokedToken {
+
+    // Increasing, so each node asks only for the rows after the last one it applied
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jti;
+
+    // The token's own expiry, epoch millis; the row is useless after it
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, long expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -30,6 +30,10 @@ public class UserPrincipal implements UserDetails {
         return user.getUsername();
     }
 
+    public int getTokenVersion() {
+        return user.getTokenVersion();
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
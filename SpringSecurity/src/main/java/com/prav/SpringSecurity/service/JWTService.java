@@ -1,56 +1,189 @@
 package com.prav.SpringSecurity.service;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.prav.SpringSecurity.model.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the HMAC-signed tokens. Tokens are signed with the current SigningKeys key and
+ * name it in their kid header; the one parser, built once, picks the verification key by kid. Verified claims
+ * are cached by the token's SHA-256 digest until the token expires, so a client repeating the same
+ * token costs one hash per request instead of a signature check and a JSON parse.
+ * Tokens for a user carry an id, the user's token version and its authorities, which is all the
+ * stateless mode of JwtFilter needs besides the user's current version; revoked ids and versions
+ * are checked on every verify. TokenRevocations shares revoked ids with the other nodes.
+ */
 @Service
 public class JWTService {
 
-
-    private String secretkey = "";
-
-    public JWTService() {
-
+    public static final String VERSION_CLAIM = "ver";
+    public static final String ROLES_CLAIM = "roles";
+
+    static final Duration TOKEN_LIFETIME = Duration.ofMillis(60 * 60 * 30);
+    static final int MAX_CACHED_TOKENS = 10_000;
+    // A cached token is re-verified at least this often, however long it has left
+    static final Duration MAX_CACHE_AGE = Duration.ofMinutes(10);
+
+    private final SigningKeys keys;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verified = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfter(Expiry.creating((String digest, Claims claims) -> timeToLive(claims)))
+            .build();
+    private final TokenDenylist denylist = new TokenDenylist(TOKEN_LIFETIME);
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
         try {
-            KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGen.generateKey();
-            secretkey = Base64.getEncoder().encodeToString(sk.getEncoded());
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
+    });
+
+    // Signs with a single in-memory key, as outside the application context
+    public JWTService() {
+        this(SigningKeys.ephemeral());
+    }
+
+    @Autowired
+    public JWTService(SigningKeys keys) {
+        this.keys = keys;
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = keys.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String username) {
+        return generateToken(username, new HashMap<>());
+    }
+
+    public String generateToken(UserPrincipal principal) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(VERSION_CLAIM, principal.getTokenVersion());
+        claims.put(ROLES_CLAIM, principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        return generateToken(principal.getUsername(), claims);
+    }
+
+    private String generateToken(String username, Map<String, Object> claims) {
+        SigningKeys.SigningKey signing = keys.signingKey();
         return Jwts.builder()
+                .header()
+                .keyId(signing.kid())
+                .and()
                 .claims()
                 .add(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 60 * 60 * 30))
+                .expiration(new Date(System.currentTimeMillis() + TOKEN_LIFETIME.toMillis()))
                 .and()
-                .signWith(getKey())
+                .signWith(signing.key())
                 .compact();
 
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretkey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Claims of a valid, unexpired, unrevoked token, or null if the signature, format or expiry is
+     * wrong. Only tokens that verified are cached, so bad tokens cannot push good ones out.
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims == null) {
+            claims = parse(token);
+            if (claims == null) {
+                return null;
+            }
+            verified.put(digest, claims);
+        }
+        // The cache drops entries at expiry, but not to the millisecond
+        if (isExpired(claims) || denylist.isRevoked(claims.getId(), claims.getSubject(), version(claims))) {
+            return null;
+        }
+        return claims;
+    }
+
+    // Revokes one token on this node until it would have expired; false if it was not valid to begin with
+    public boolean revoke(String token) {
+        Claims claims = verify(token);
+        if (claims == null || claims.getId() == null) {
+            return false;
+        }
+        revoke(claims.getId(), expiresAt(claims));
+        return true;
+    }
+
+    // Revokes a token by id on this node, e.g. one revoked by another node
+    public void revoke(String jti, long expiresAt) {
+        denylist.revoke(jti, expiresAt);
+    }
+
+    // Epoch millis; a token without an expiry is treated as living the usual lifetime from now
+    public long expiresAt(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null ? expiration.getTime() : System.currentTimeMillis() + TOKEN_LIFETIME.toMillis();
+    }
+
+    // Revokes every token of the user issued with a lower version
+    public void revokeBefore(String username, int tokenVersion) {
+        denylist.revokeBefore(username, tokenVersion);
+    }
+
+    public Integer version(Claims claims) {
+        return claims.get(VERSION_CLAIM, Integer.class);
+    }
+
+    public List<GrantedAuthority> authorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream().<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString())).toList();
+    }
+
+    // Full signature check and parse, bypassing the cache
+    public Claims parse(String token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     public String extractUserName(String token) {
@@ -59,29 +192,41 @@ public class JWTService {
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+        final Claims claims = verify(token);
+        return claims != null ? claimResolver.apply(claims) : null;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(verify(token), userDetails);
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        if (claims == null || !userDetails.getUsername().equals(claims.getSubject()) || isExpired(claims)) {
+            return false;
+        }
+        // A password change bumps the stored version, which retires the tokens issued before it
+        Integer version = version(claims);
+        return version == null || !(userDetails instanceof UserPrincipal principal)
+                || version == principal.getTokenVersion();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static Duration timeToLive(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return MAX_CACHE_AGE;
+        }
+        Duration left = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis());
+        return left.isNegative() ? Duration.ZERO : left.compareTo(MAX_CACHE_AGE) > 0 ? MAX_CACHE_AGE : left;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private String digest(String token) {
+        byte[] hash = sha256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.prav.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token buckets in front of /login and /register, one per client IP and one per client IP and
+ * username, so a single client cannot queue up more password hashes than its share, nor spend all
+ * of them guessing one account. The username bucket is per client so that nobody can lock a user
+ * out of their own account by failing logins for it from somewhere else.
+ * A bucket holds up to its burst and refills continuously at its per-minute rate. Idle buckets are
+ * dropped (a dropped bucket comes back full) and the number kept is bounded.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final int MAX_BUCKETS = 100_000;
+
+    private static final class TokenBucket {
+        private final int burst;
+        private final double perNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int burst, int perMinute) {
+            this.burst = burst;
+            this.perNano = perMinute / (double) Duration.ofMinutes(1).toNanos();
+            this.tokens = burst;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    private final int ipBurst;
+    private final int ipPerMinute;
+    private final int userBurst;
+    private final int userPerMinute;
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .maximumSize(MAX_BUCKETS)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final Counter ipLimited;
+    private final Counter userLimited;
+
+    public LoginRateLimiter(@Value("${security.login-rate.ip-burst:30}") int ipBurst,
+                            @Value("${security.login-rate.ip-per-minute:60}") int ipPerMinute,
+                            @Value("${security.login-rate.user-burst:5}") int userBurst,
+                            @Value("${security.login-rate.user-per-minute:10}") int userPerMinute,
+                            ObjectProvider<MeterRegistry> registry) {
+        this.ipBurst = ipBurst;
+        this.ipPerMinute = ipPerMinute;
+        this.userBurst = userBurst;
+        this.userPerMinute = userPerMinute;
+        MeterRegistry meters = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        ipLimited = Counter.builder("security.login.rate-limited").tag("key", "ip").register(meters);
+        userLimited = Counter.builder("security.login.rate-limited").tag("key", "username").register(meters);
+    }
+
+    // False when the IP, or this IP's attempts at the username if given, are out of tokens
+    public boolean tryAcquire(String ip, String username) {
+        if (!buckets.get("ip:" + ip, key -> new TokenBucket(ipBurst, ipPerMinute)).tryAcquire()) {
+            ipLimited.increment();
+            return false;
+        }
+        if (username != null && !buckets.get("user:" + ip + ":" + username, key -> new TokenBucket(userBurst, userPerMinute)).tryAcquire()) {
+            userLimited.increment();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,9 @@
+package com.prav.SpringSecurity.service;
+
+// Thrown when the hashing pool is full or a hash waited too long; the request should be retried later
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,157 @@
+package com.prav.SpringSecurity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a small dedicated pool instead of the request threads, so a burst of logins can only
+ * use that many cores and everything else keeps running. The queue in front of the pool is bounded:
+ * past it, or past the wait timeout, hashing fails fast with PasswordHashingBusyException (a 429).
+ * The timeout only covers the wait for a thread. A hash that has started runs to the end, and one
+ * whose caller gave up while it was queued is skipped, never hashed.
+ * A stored hash with a different cost than the configured one asks to be re-encoded, which
+ * DaoAuthenticationProvider does on the next successful login.
+ * Meters: security.password.hash (time spent hashing), security.password.hash.wait (time queued),
+ * security.password.hash.queue and .active, and security.password.hash.rejected.
+ */
+@Component
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final int strength;
+    private final PasswordEncoder bcrypt;
+    private final ThreadPoolExecutor pool;
+    private final Duration timeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PooledPasswordEncoder(@Value("${security.password.strength:12}") int strength,
+                                 @Value("${security.password.threads:0}") int threads,
+                                 @Value("${security.password.queue-capacity:32}") int queueCapacity,
+                                 @Value("${security.password.timeout:PT10S}") Duration timeout,
+                                 ObjectProvider<MeterRegistry> registry) {
+        // Meters also reach an actuator registry added later, which joins the global one
+        this(strength, threads, queueCapacity, timeout, registry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public PooledPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout, MeterRegistry registry) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity, timeout, registry);
+    }
+
+    PooledPasswordEncoder(PasswordEncoder bcrypt, int strength, int threads, int queueCapacity, Duration timeout,
+                          MeterRegistry registry) {
+        this.strength = strength;
+        this.bcrypt = bcrypt;
+        this.timeout = timeout;
+        // Half the cores by default, leaving the rest to the other endpoints
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger count = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue, task -> {
+            Thread thread = new Thread(task, "bcrypt-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        encodeTimer = Timer.builder("security.password.hash").tag("operation", "encode").register(registry);
+        matchesTimer = Timer.builder("security.password.hash").tag("operation", "matches").register(registry);
+        waitTimer = Timer.builder("security.password.hash.wait").register(registry);
+        rejected = Counter.builder("security.password.hash.rejected").register(registry);
+        Gauge.builder("security.password.hash.queue", pool, p -> p.getQueue().size()).register(registry);
+        Gauge.builder("security.password.hash.active", pool, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    // Both ways: raising the cost hardens old hashes, lowering it makes logins cheaper again
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && encodedPassword.length() > 7 && encodedPassword.charAt(6) == '$'
+                && !encodedPassword.substring(4, 6).equals(String.format("%02d", strength));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private <T> T run(Timer timer, Callable<T> hash) {
+        long queuedAt = System.nanoTime();
+        // Taken exactly once: by the pool thread as the hash starts, or by the caller giving up on it
+        AtomicBoolean claimed = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                started.countDown();
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing queue is full");
+        }
+        try {
+            if (!started.await(timeout.toMillis(), TimeUnit.MILLISECONDS) && claimed.compareAndSet(false, true)) {
+                abandon(future);
+                rejected.increment();
+                throw new PasswordHashingBusyException("Password hashing timed out");
+            }
+            return future.get();
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                abandon(future);
+            }
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Frees the queue slot of a hash that never started
+    private void abandon(Future<?> future) {
+        future.cancel(false);
+        pool.remove((Runnable) future);
+    }
+}
@@ -0,0 +1,257 @@
+package com.prav.SpringSecurity.service;
+
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The HMAC signing keys, kept in a PKCS12 keystore file so tokens survive restarts and every node
+ * reading the same file accepts every other node's tokens.
+ * Each key's id (the token's kid header) starts with its creation time. A new key is generated once
+ * the newest is older than the rotation period, but only signs after the activation delay, by which
+ * time every node has re-read the file and can verify it. The key it replaces keeps verifying until
+ * the last token it signed has expired, and is then dropped from the file.
+ * Nodes re-read the file when it changes; rotation takes a lock file so two nodes cannot both rotate.
+ * Without a path the keys live only in memory, as one key that never rotates. With a path, a
+ * password is required; there is no built-in one.
+ */
+@Component
+public class SigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeys.class);
+
+    public record SigningKey(String kid, SecretKey key, long createdAt) {
+    }
+
+    // Keys by kid, and the newest one already active for signing
+    private record KeyRing(Map<String, SigningKey> keys, SigningKey signing, FileTime loadedVersion) {
+    }
+
+    private final Path path;
+    private final char[] password;
+    private final Duration rotation;
+    private final Duration activationDelay;
+    private final Duration tokenLifetime;
+    private volatile KeyRing ring;
+
+    @Autowired
+    public SigningKeys(@Value("${security.jwt.keystore.path:}") String path,
+                       @Value("${security.jwt.keystore.password:}") String password,
+                       @Value("${security.jwt.key-rotation:P1D}") Duration rotation,
+                       @Value("${security.jwt.key-activation-delay:PT2M}") Duration activationDelay) {
+        this(path.isBlank() ? null : Path.of(path), password.toCharArray(), rotation, activationDelay, JWTService.TOKEN_LIFETIME);
+    }
+
+    SigningKeys(Path path, char[] password, Duration rotation, Duration activationDelay, Duration tokenLifetime) {
+        if (path != null && password.length == 0) {
+            throw new IllegalStateException("No password for the JWT keystore " + path
+                    + "; set JWT_KEYSTORE_PASSWORD, or run with the dev profile locally");
+        }
+        this.path = path;
+        this.password = password;
+        this.rotation = rotation;
+        this.activationDelay = activationDelay;
+        this.tokenLifetime = tokenLifetime;
+        if (path == null) {
+            SigningKey key = newKey(System.currentTimeMillis());
+            ring = new KeyRing(Map.of(key.kid(), key), key, null);
+        } else {
+            rotateIfDue();
+        }
+    }
+
+    // One random key, held in memory only
+    public static SigningKeys ephemeral() {
+        return new SigningKeys(null, new char[0], Duration.ZERO, Duration.ZERO, JWTService.TOKEN_LIFETIME);
+    }
+
+    public SigningKey signingKey() {
+        SigningKey signing = ring.signing();
+        // The ring is refreshed on a schedule; a key that came due since still starts on time
+        long now = System.currentTimeMillis();
+        for (SigningKey key : ring.keys().values()) {
+            if (key.createdAt() > signing.createdAt() && key.createdAt() + activationDelay.toMillis() <= now) {
+                signing = key;
+            }
+        }
+        return signing;
+    }
+
+    // Null for an unknown or retired kid
+    public SecretKey verificationKey(String kid) {
+        SigningKey key = kid != null ? ring.keys().get(kid) : null;
+        return key != null ? key.key() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.key-check-interval:PT30S}",
+            initialDelayString = "${security.jwt.key-check-interval:PT30S}")
+    public void refresh() {
+        if (path == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.exists(path) ? Files.getLastModifiedTime(path) : null;
+            if (modified != null && !modified.equals(ring.loadedVersion())) {
+                List<SigningKey> keys = read();
+                if (!keys.isEmpty()) {
+                    ring = ring(keys, modified);
+                }
+            }
+            if (isDue(ring.keys().values(), System.currentTimeMillis())) {
+                rotateIfDue();
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            // Keep verifying with the keys already loaded; the next check tries again
+            log.warn("Could not refresh JWT signing keys from {}", path, e);
+        }
+    }
+
+    // Under the lock: re-read, add a key if the newest is too old, drop expired ones, write back
+    private synchronized void rotateIfDue() {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path lockFile = parent.resolve(path.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                long now = System.currentTimeMillis();
+                List<SigningKey> keys = Files.exists(path) ? read() : new ArrayList<>();
+                boolean changed = false;
+                if (isDue(keys, now)) {
+                    // The very first key has nobody to overlap with, so it signs at once
+                    keys.add(newKey(keys.isEmpty() ? now - activationDelay.toMillis() : now));
+                    changed = true;
+                }
+                changed |= retire(keys, now);
+                if (changed) {
+                    write(keys);
+                }
+                ring = ring(keys, Files.getLastModifiedTime(path));
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            if (ring == null) {
+                throw new RuntimeException("Could not load JWT signing keys from " + path, e);
+            }
+            log.warn("Could not rotate JWT signing keys in {}", path, e);
+        }
+    }
+
+    private boolean isDue(Iterable<SigningKey> keys, long now) {
+        long newest = Long.MIN_VALUE;
+        for (SigningKey key : keys) {
+            newest = Math.max(newest, key.createdAt());
+        }
+        return newest == Long.MIN_VALUE || now - newest >= rotation.toMillis();
+    }
+
+    // A key is dropped once its successor has been signing for a full token lifetime
+    private boolean retire(List<SigningKey> keys, long now) {
+        keys.sort(Comparator.comparingLong(SigningKey::createdAt));
+        boolean changed = false;
+        for (int i = keys.size() - 2; i >= 0; i--) {
+            long replacedAt = keys.get(i + 1).createdAt() + activationDelay.toMillis();
+            if (replacedAt + tokenLifetime.toMillis() < now) {
+                keys.remove(i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private KeyRing ring(List<SigningKey> keys, FileTime version) {
+        long now = System.currentTimeMillis();
+        Map<String, SigningKey> byKid = new HashMap<>();
+        SigningKey signing = null;
+        for (SigningKey key : keys) {
+            byKid.put(key.kid(), key);
+            boolean active = key.createdAt() + activationDelay.toMillis() <= now;
+            if (active && (signing == null || key.createdAt() > signing.createdAt())) {
+                signing = key;
+            }
+        }
+        if (signing == null) {
+            // Only keys still waiting to activate, as after a long outage; sign with the oldest
+            signing = Collections.min(keys, Comparator.comparingLong(SigningKey::createdAt));
+        }
+        return new KeyRing(Map.copyOf(byKid), signing, version);
+    }
+
+    private List<SigningKey> read() throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            store.load(in, password);
+        }
+        List<SigningKey> keys = new ArrayList<>();
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(password);
+        for (String kid : Collections.list(store.aliases())) {
+            if (store.getEntry(kid, protection) instanceof KeyStore.SecretKeyEntry entry) {
+                SecretKey key = Keys.hmacShaKeyFor(entry.getSecretKey().getEncoded());
+                keys.add(new SigningKey(kid, key, createdAt(kid)));
+            }
+        }
+        return keys;
+    }
+
+    // Written beside the old file and moved over it, so readers never see half a keystore
+    private void write(List<SigningKey> keys) throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        store.load(null, password);
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(password);
+        for (SigningKey key : keys) {
+            store.setEntry(key.kid(), new KeyStore.SecretKeyEntry(key.key()), protection);
+        }
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            store.store(out, password);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SigningKey newKey(long createdAt) {
+        try {
+            SecretKey key = KeyGenerator.getInstance("HmacSHA256").generateKey();
+            // Keystore aliases are lower-cased, so the kid sticks to lower-case characters
+            String kid = Long.toString(createdAt, 36) + "-" + UUID.randomUUID().toString().substring(0, 8);
+            return new SigningKey(kid, key, createdAt);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long createdAt(String kid) {
+        int dash = kid.indexOf('-');
+        try {
+            return Long.parseLong(dash > 0 ? kid.substring(0, dash) : kid, 36);
+        } catch (NumberFormatException e) {
+            // A key added by hand without a timestamp is treated as old, but still verifies
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.prav.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * Revoked tokens, in memory. Single tokens are listed by id (jti) and all of a user's older tokens
+ * by a minimum token version. Each entry is dropped once every token it could match has expired
+ * anyway, so the list only ever holds revocations from the last token lifetime.
+ * The list itself is per instance; TokenRevocations fills it with logouts from the other nodes.
+ */
+class TokenDenylist {
+
+    // Token id -> that token's expiry, epoch millis
+    private final Cache<String, Long> tokenIds = Caffeine.newBuilder()
+            .expireAfter(Expiry.creating((String jti, Long expiresAt) -> untilMillis(expiresAt)))
+            .build();
+    // Username -> lowest token version still accepted
+    private final Cache<String, Integer> minVersions;
+
+    TokenDenylist(Duration tokenLifetime) {
+        minVersions = Caffeine.newBuilder()
+                .expireAfterWrite(tokenLifetime)
+                .build();
+    }
+
+    void revoke(String jti, long expiresAt) {
+        tokenIds.put(jti, expiresAt);
+    }
+
+    void revokeBefore(String username, int version) {
+        minVersions.asMap().merge(username, version, Math::max);
+    }
+
+    boolean isRevoked(String jti, String username, Integer version) {
+        if (jti != null && tokenIds.getIfPresent(jti) != null) {
+            return true;
+        }
+        Integer min = username != null ? minVersions.getIfPresent(username) : null;
+        return min != null && (version == null || version < min);
+    }
+
+    private static Duration untilMillis(long epochMillis) {
+        long left = epochMillis - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(left, 0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.prav.SpringSecurity.service;
+
+import com.prav.SpringSecurity.model.RevokedToken;
+import com.prav.SpringSecurity.repo.RevokedTokenRepo;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shares logouts between nodes through the revoked_tokens table. A logout is denied on this node at
+ * once and written to the table; every node polls the table for rows it has not applied yet, and
+ * loads the unexpired ones at startup, so a logged-out token stops working everywhere within one
+ * poll and stays revoked across restarts. Rows are deleted once their token has expired.
+ * Password changes don't go through here: the new token version is in the users table.
+ */
+@Component
+public class TokenRevocations {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocations.class);
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private RevokedTokenRepo repo;
+
+    // Highest row id already in this node's denylist
+    private long applied;
+
+    @PostConstruct
+    public void init() {
+        sync();
+    }
+
+    // False if the token was not valid to begin with
+    public boolean revoke(String token) {
+        Claims claims = jwtService.verify(token);
+        if (claims == null || claims.getId() == null) {
+            return false;
+        }
+        long expiresAt = jwtService.expiresAt(claims);
+        jwtService.revoke(claims.getId(), expiresAt);
+        try {
+            repo.save(new RevokedToken(claims.getId(), expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            // Logged out twice; the first row already covers it
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation-poll:PT5S}",
+            initialDelayString = "${security.jwt.revocation-poll:PT5S}")
+    public synchronized void sync() {
+        try {
+            long now = System.currentTimeMillis();
+            for (RevokedToken row : repo.findByIdGreaterThanAndExpiresAtGreaterThanOrderById(applied, now)) {
+                jwtService.revoke(row.getJti(), row.getExpiresAt());
+                applied = row.getId();
+            }
+            repo.deleteExpired(now);
+        } catch (DataAccessException e) {
+            // Tokens revoked elsewhere stay usable here until a later poll gets through
+            log.warn("Could not load token revocations", e);
+        }
+    }
+}
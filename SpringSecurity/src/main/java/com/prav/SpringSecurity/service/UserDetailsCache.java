@@ -0,0 +1,54 @@
+package com.prav.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Users loaded for bearer-token requests, so an authenticated request does not query the users table.
+ * Bounded and expired after a TTL; UserService evicts a user when it is registered or its password
+ * changes. Eviction is local to this instance, so the TTL bounds how stale another instance can be.
+ * Unknown usernames are not cached.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    private final Cache<String, UserDetails> users;
+
+    public UserDetailsCache(@Value("${security.user-cache.max-size:10000}") long maxSize,
+                            @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return users.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+}
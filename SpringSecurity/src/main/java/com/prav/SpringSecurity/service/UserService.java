@@ -1,12 +1,14 @@
 package com.prav.SpringSecurity.service;
 
+import com.prav.SpringSecurity.model.UserPrincipal;
 import com.prav.SpringSecurity.model.Users;
 import com.prav.SpringSecurity.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,11 +23,37 @@ public class UserService {
     @Autowired
     AuthenticationManager authManager;
 
-    private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private PasswordEncoder encoder;
 
     public Users register(Users user){
         user.setPassword(encoder.encode(user.getPassword()));
-        return repo.save(user);
+        Users saved = repo.save(user);
+        // A lookup of this name may have been cached before it existed
+        userDetailsCache.removeUserFromCache(saved.getUsername());
+        return saved;
+    }
+
+    // For users changing their own password; throws an AuthenticationException if the current one is wrong
+    public void changePassword(String username, String currentPassword, String newPassword) {
+        authManager.authenticate(new UsernamePasswordAuthenticationToken(username, currentPassword));
+        changePassword(username, newPassword);
+    }
+
+    public void changePassword(String username, String newPassword) {
+        Users user = repo.findByUsername(username);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        user.setPassword(encoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        repo.save(user);
+        userDetailsCache.removeUserFromCache(username);
+        // This node denies the older tokens at once; other nodes once their cached copy of the user expires
+        jwtService.revokeBefore(username, user.getTokenVersion());
     }
 
     public String verify(Users user) {
@@ -35,10 +63,12 @@ public class UserService {
             );
 
             if (authentication.isAuthenticated()) {
-                return jwtService.generateToken(user.getUsername());
+                return jwtService.generateToken((UserPrincipal) authentication.getPrincipal());
             }
             return "Unauthorized";
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("Authentication failed: " + e.getMessage());
             return "Unauthorized: " + e.getMessage();
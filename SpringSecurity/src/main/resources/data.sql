@@ -1,5 +1,5 @@
 -- Password 'spring' hashed with BCrypt
-INSERT INTO users (id, username, password) VALUES (1, 'srinu', '$2a$12$Q7l3ez3PWoaha//CSjYmqukL6cq0GZE.KKBKt2PL4HYMMBKAlQoqi');
+INSERT INTO users (username, password) VALUES ('srinu', '$2a$12$Q7l3ez3PWoaha//CSjYmqukL6cq0GZE.KKBKt2PL4HYMMBKAlQoqi');
 
 -- Password 'spring123' hashed with BCrypt
-INSERT INTO users (id, username, password) VALUES (2, 'kumar', '$2a$12$T/lK0k7DGYvp3G33owiWHeRB9ELBsdMT0ITjFWOIA21fG6bqDdvC.');
\ No newline at end of file
+INSERT INTO users (username, password) VALUES ('kumar', '$2a$12$T/lK0k7DGYvp3G33owiWHeRB9ELBsdMT0ITjFWOIA21fG6bqDdvC.');
\ No newline at end of file
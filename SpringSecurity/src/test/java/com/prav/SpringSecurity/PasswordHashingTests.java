@@ -0,0 +1,57 @@
+package com.prav.SpringSecurity;
+
+import com.prav.SpringSecurity.model.Users;
+import com.prav.SpringSecurity.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"security.password.strength=5",
+		"security.login-rate.user-burst=2",
+		"security.login-rate.user-per-minute=1"})
+@AutoConfigureMockMvc
+class PasswordHashingTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Test
+	void loginRehashesWithTheConfiguredCost() throws Exception {
+		userRepo.save(new Users("old-cost-user", new BCryptPasswordEncoder(4).encode("secret")));
+
+		mvc.perform(login("old-cost-user", "secret")).andExpect(status().isOk());
+		assertTrue(userRepo.findByUsername("old-cost-user").getPassword().startsWith("$2a$05$"));
+	}
+
+	@Test
+	void repeatedLoginsForOneUsernameAreLimited() throws Exception {
+		mvc.perform(login("limited-user", "wrong")).andExpect(status().isOk());
+		mvc.perform(login("limited-user", "wrong")).andExpect(status().isOk());
+		mvc.perform(login("limited-user", "wrong")).andExpect(status().isTooManyRequests());
+
+		// Another client's attempts at the same account are counted separately
+		mvc.perform(login("limited-user", "wrong").with(request -> {
+			request.setRemoteAddr("10.0.0.9");
+			return request;
+		})).andExpect(status().isOk());
+	}
+
+	private static MockHttpServletRequestBuilder login(String username, String password) {
+		return post("/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+	}
+}
@@ -0,0 +1,119 @@
+package com.prav.SpringSecurity;
+
+import com.prav.SpringSecurity.model.RevokedToken;
+import com.prav.SpringSecurity.model.Users;
+import com.prav.SpringSecurity.repo.RevokedTokenRepo;
+import com.prav.SpringSecurity.repo.UserRepo;
+import com.prav.SpringSecurity.service.JWTService;
+import com.prav.SpringSecurity.service.TokenRevocations;
+import com.prav.SpringSecurity.service.UserDetailsCache;
+import com.prav.SpringSecurity.service.UserService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "security.jwt.stateless=true")
+@AutoConfigureMockMvc
+class StatelessJwtTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	@Autowired
+	private JWTService jwtService;
+
+	@Autowired
+	private RevokedTokenRepo revokedTokenRepo;
+
+	@Autowired
+	private TokenRevocations tokenRevocations;
+
+	@Test
+	void claimsAuthorizeTheRequestUntilTheUserIsGone() throws Exception {
+		userService.register(new Users("stateless-user", "secret"));
+		String token = userService.verify(new Users("stateless-user", "secret"));
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+		// Noticed once the cached user expires, forced here
+		userRepo.delete(userRepo.findByUsername("stateless-user"));
+		userDetailsCache.removeUserFromCache("stateless-user");
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutOnAnotherNodeReachesThisOne() throws Exception {
+		String token = userService.verify(new Users("kumar", "spring123"));
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+		// What the other node's logout leaves in the shared table
+		Claims claims = jwtService.verify(token);
+		revokedTokenRepo.save(new RevokedToken(claims.getId(), claims.getExpiration().getTime()));
+		tokenRevocations.sync();
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void passwordChangeOnAnotherNodeRetiresOlderTokensOnceTheUserIsReloaded() throws Exception {
+		userService.register(new Users("remote-change-user", "secret"));
+		String token = userService.verify(new Users("remote-change-user", "secret"));
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+		Users user = userRepo.findByUsername("remote-change-user");
+		user.setTokenVersion(user.getTokenVersion() + 1);
+		userRepo.save(user);
+		userDetailsCache.removeUserFromCache("remote-change-user");
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesTheToken() throws Exception {
+		String token = userService.verify(new Users("srinu", "spring"));
+		String other = userService.verify(new Users("srinu", "spring"));
+
+		mvc.perform(post("/logout").header("Authorization", "Bearer " + token)).andExpect(status().isNoContent());
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+		mvc.perform(get("/students").header("Authorization", "Bearer " + other)).andExpect(status().isOk());
+	}
+
+	@Test
+	void passwordChangeRetiresOlderTokens() throws Exception {
+		userService.register(new Users("versioned-user", "before"));
+		String old = userService.verify(new Users("versioned-user", "before"));
+
+		userService.changePassword("versioned-user", "after");
+		String current = userService.verify(new Users("versioned-user", "after"));
+		mvc.perform(get("/students").header("Authorization", "Bearer " + old)).andExpect(status().isUnauthorized());
+		mvc.perform(get("/students").header("Authorization", "Bearer " + current)).andExpect(status().isOk());
+	}
+
+	@Test
+	void passwordEndpointChecksTheCurrentPassword() throws Exception {
+		userService.register(new Users("changing-user", "before"));
+		String token = userService.verify(new Users("changing-user", "before"));
+
+		mvc.perform(put("/password").header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"currentPassword\":\"wrong\",\"newPassword\":\"after\"}")).andExpect(status().isForbidden());
+		mvc.perform(put("/password").header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"currentPassword\":\"before\",\"newPassword\":\"after\"}")).andExpect(status().isNoContent());
+		assertTrue(userService.verify(new Users("changing-user", "after")).startsWith("ey"));
+	}
+}
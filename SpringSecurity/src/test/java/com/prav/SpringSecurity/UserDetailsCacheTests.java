@@ -0,0 +1,68 @@
+package com.prav.SpringSecurity;
+
+import com.prav.SpringSecurity.model.Users;
+import com.prav.SpringSecurity.repo.UserRepo;
+import com.prav.SpringSecurity.service.UserDetailsCache;
+import com.prav.SpringSecurity.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserDetailsCacheTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private UserDetailsCache userDetailsCache;
+
+	@Test
+	void tokenRequestsDoNotNeedTheUsersTable() throws Exception {
+		userService.register(new Users("cache-user", "secret"));
+		String token = userService.verify(new Users("cache-user", "secret"));
+
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+		assertNotNull(userDetailsCache.getUserFromCache("cache-user"));
+
+		// Gone from the table but still cached: the next request is answered without it
+		userRepo.delete(userRepo.findByUsername("cache-user"));
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+
+		userDetailsCache.removeUserFromCache("cache-user");
+		mvc.perform(get("/students").header("Authorization", "Bearer " + token)).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void passwordChangeEvictsTheCachedUser() {
+		userService.register(new Users("rotating-user", "before"));
+		userDetailsCache.loadUserByUsername("rotating-user");
+
+		userService.changePassword("rotating-user", "after");
+		assertNull(userDetailsCache.getUserFromCache("rotating-user"));
+		assertFalse(userService.verify(new Users("rotating-user", "after")).startsWith("Unauthorized"));
+	}
+
+	@Test
+	void usernamesAreUnique() {
+		userService.register(new Users("unique-user", "one"));
+		assertThrows(DataIntegrityViolationException.class, () -> userService.register(new Users("unique-user", "two")));
+	}
+}
@@ -0,0 +1,93 @@
+package com.prav.SpringSecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PooledPasswordEncoderTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService callers = Executors.newFixedThreadPool(2);
+	// Every hash blocks until released, so the pool's single thread stays busy for as long as a test needs
+	private final CountDownLatch hashing = new CountDownLatch(1);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger hashed = new AtomicInteger();
+	private final PasswordEncoder blocking = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			hashed.incrementAndGet();
+			hashing.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hash:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encodedPassword.equals(encode(rawPassword));
+		}
+	};
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		callers.shutdownNow();
+	}
+
+	@Test
+	void fullPoolShedsInsteadOfQueueing() throws Exception {
+		PooledPasswordEncoder encoder = new PooledPasswordEncoder(blocking, 4, 1, 1, Duration.ofSeconds(30), registry);
+		try {
+			// One hash running, one queued; the next has nowhere to go
+			callers.submit(() -> encoder.encode("first"));
+			hashing.await();
+			callers.submit(() -> encoder.encode("second"));
+			awaitQueued(1);
+			assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+			assertEquals(1, registry.get("security.password.hash.rejected").counter().count());
+		} finally {
+			encoder.shutdown();
+		}
+	}
+
+	@Test
+	void callersThatGaveUpAreNeverHashed() throws Exception {
+		PooledPasswordEncoder encoder = new PooledPasswordEncoder(blocking, 4, 1, 1, Duration.ofMillis(50), registry);
+		try {
+			Future<String> first = callers.submit(() -> encoder.encode("first"));
+			hashing.await();
+			// The timeout only covers the queue; the running hash is not affected by it
+			assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("abandoned"));
+			release.countDown();
+			assertEquals("hash:first", first.get());
+			assertEquals("hash:later", encoder.encode("later"));
+			assertEquals(2, hashed.get());
+		} finally {
+			encoder.shutdown();
+		}
+	}
+
+	private void awaitQueued(int size) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		while (registry.get("security.password.hash.queue").gauge().value() < size) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Nothing was queued");
+			}
+			Thread.onSpinWait();
+		}
+	}
+}
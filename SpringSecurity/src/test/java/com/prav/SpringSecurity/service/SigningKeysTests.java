@@ -0,0 +1,67 @@
+package com.prav.SpringSecurity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SigningKeysTests {
+
+	private static final char[] PASSWORD = "test".toCharArray();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void nodesSharingTheKeystoreAcceptEachOthersTokens() {
+		Path keystore = dir.resolve("keys.p12");
+		JWTService first = new JWTService(new SigningKeys(keystore, PASSWORD, Duration.ofDays(1), Duration.ZERO, Duration.ofHours(1)));
+		JWTService second = new JWTService(new SigningKeys(keystore, PASSWORD, Duration.ofDays(1), Duration.ZERO, Duration.ofHours(1)));
+
+		assertEquals("node-user", second.parse(first.generateToken("node-user")).getSubject());
+		assertEquals("node-user", first.parse(second.generateToken("node-user")).getSubject());
+
+		// A restart reads the same keys back
+		JWTService restarted = new JWTService(new SigningKeys(keystore, PASSWORD, Duration.ofDays(1), Duration.ZERO, Duration.ofHours(1)));
+		assertNotNull(restarted.parse(first.generateToken("node-user")));
+	}
+
+	@Test
+	void rotatedKeysOverlapUntilTheirTokensExpire() throws Exception {
+		Path keystore = dir.resolve("rotating.p12");
+		SigningKeys keys = new SigningKeys(keystore, PASSWORD, Duration.ofMillis(1), Duration.ZERO, Duration.ofMillis(200));
+		SigningKeys other = new SigningKeys(keystore, PASSWORD, Duration.ofDays(1), Duration.ZERO, Duration.ofMillis(200));
+		JWTService jwtService = new JWTService(keys);
+		JWTService otherService = new JWTService(other);
+		String before = jwtService.generateToken("rotating-user");
+		String oldKid = keys.signingKey().kid();
+
+		Thread.sleep(5);
+		keys.refresh();
+		assertNotEquals(oldKid, keys.signingKey().kid());
+		assertNotNull(jwtService.parse(before));
+
+		// The other node picks the new key up from the file on its next check
+		String after = jwtService.generateToken("rotating-user");
+		other.refresh();
+		assertNotNull(otherService.parse(after));
+
+		Thread.sleep(250);
+		keys.refresh();
+		assertNull(keys.verificationKey(oldKid));
+		assertNull(jwtService.parse(before));
+	}
+
+	@Test
+	void keystoreWithoutPasswordIsRefused() {
+		assertThrows(IllegalStateException.class, () -> new SigningKeys(dir.resolve("open.p12"), new char[0],
+				Duration.ofDays(1), Duration.ZERO, Duration.ofHours(1)));
+	}
+}
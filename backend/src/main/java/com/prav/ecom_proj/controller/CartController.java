@@ -1,31 +1,43 @@
 package com.prav.ecom_proj.controller;
 
-import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.diagnostics.SqlBudget;
+import com.prav.ecom_proj.model.CartItem;
+import com.prav.ecom_proj.model.CartTotal;
 import com.prav.ecom_proj.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.regex.Pattern;
 
+// Every call is scoped to the cart named by the X-Cart-Id header; item ids are product ids
 @RestController
+@Profile("!reactive")
 @CrossOrigin
 @RequestMapping("/api/cart")
 public class CartController {
 
+    private static final String CART_HEADER = "X-Cart-Id";
+    private static final Pattern CART_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
     @Autowired
     private CartService cartService;
 
     @GetMapping
-    public ResponseEntity<List<Cart>> getAllCartItems() {
-        return new ResponseEntity<>(cartService.getAllCartItems(), HttpStatus.OK);
+    @SqlBudget(2)
+    public ResponseEntity<List<CartItem>> getAllCartItems(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
+        return new ResponseEntity<>(cartService.getAllCartItems(validCartId(cartId)), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cart> getCartItemById(@PathVariable int id) {
-        Cart cartItem = cartService.getCartItemById(id);
+    @SqlBudget(2)
+    public ResponseEntity<CartItem> getCartItemById(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                                    @PathVariable int id) {
+        CartItem cartItem = cartService.getCartItemById(validCartId(cartId), id);
         if (cartItem != null) {
             return new ResponseEntity<>(cartItem, HttpStatus.OK);
         }
@@ -33,9 +45,11 @@ public class CartController {
     }
 
     @PostMapping
-    public ResponseEntity<?> addToCart(@RequestParam int productId, @RequestParam int quantity) {
+    @SqlBudget(3)
+    public ResponseEntity<?> addToCart(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                       @RequestParam int productId, @RequestParam int quantity) {
         try {
-            Cart cart = cartService.addToCart(productId, quantity);
+            CartItem cart = cartService.addToCart(validCartId(cartId), productId, quantity);
             return new ResponseEntity<>(cart, HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -43,9 +57,11 @@ public class CartController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateCartItem(@PathVariable int id, @RequestParam int quantity) {
+    @SqlBudget(2)
+    public ResponseEntity<?> updateCartItem(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                            @PathVariable int id, @RequestParam int quantity) {
         try {
-            Cart updatedCart = cartService.updateCartQuantity(id, quantity);
+            CartItem updatedCart = cartService.updateCartQuantity(validCartId(cartId), id, quantity);
             if (updatedCart != null) {
                 return new ResponseEntity<>(updatedCart, HttpStatus.OK);
             }
@@ -56,19 +72,22 @@ public class CartController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCartItem(@PathVariable int id) {
+    @SqlBudget(2)
+    public ResponseEntity<?> deleteCartItem(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                            @PathVariable int id) {
         try {
-            cartService.deleteCartItem(id);
+            cartService.deleteCartItem(validCartId(cartId), id);
             return new ResponseEntity<>("Cart item deleted successfully", HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // No budget: stock goes back with one update per line
     @DeleteMapping
-    public ResponseEntity<?> clearCart() {
+    public ResponseEntity<?> clearCart(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
         try {
-            cartService.clearCart();
+            cartService.clearCart(validCartId(cartId));
             return new ResponseEntity<>("Cart cleared successfully", HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -76,8 +95,17 @@ public class CartController {
     }
 
     @GetMapping("/total")
-    public ResponseEntity<BigDecimal> getCartTotal() {
-        BigDecimal total = cartService.getCartTotal();
+    @SqlBudget(2)
+    public ResponseEntity<CartTotal> getCartTotal(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
+        CartTotal total = cartService.getCartTotal(validCartId(cartId));
         return new ResponseEntity<>(total, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    // Cart ids end up in the journal and the database, so keep them to a safe alphabet
+    private static String validCartId(String cartId) {
+        if (!CART_ID.matcher(cartId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + CART_HEADER);
+        }
+        return cartId;
+    }
+}
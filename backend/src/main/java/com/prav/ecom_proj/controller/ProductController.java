@@ -1,34 +1,125 @@
 package com.prav.ecom_proj.controller;
 
+import com.prav.ecom_proj.diagnostics.SqlBudget;
+import com.prav.ecom_proj.model.ImportReport;
 import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductFilter;
+import com.prav.ecom_proj.model.ProductSummary;
+import com.prav.ecom_proj.model.SearchResult;
+import com.prav.ecom_proj.model.Suggestion;
+import com.prav.ecom_proj.service.ImageVariant;
+import com.prav.ecom_proj.service.ProductImportService;
 import com.prav.ecom_proj.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
-@CrossOrigin
+@Profile("!reactive")
+@CrossOrigin(exposedHeaders = {"ETag", "X-Total-Count"})
 @RequestMapping("/api")
 public class ProductController {
 
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private ProductImportService importService;
+
+    // Conditional GETs: checkNotModified answers 304 before any body is loaded or serialized
+
+    // With no parameters this is the whole catalog; any filter, paging or sort parameter turns it
+    // into one page of matches with category and brand facet counts (category and brand may repeat).
+    // Release dates are yyyy-MM-dd; sort is id, price or release_date.
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts(){
-        return new ResponseEntity<>(service.getAllProducts(), HttpStatus.OK);
+    @SqlBudget(1)
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) List<String> brand,
+                                            @RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+                                            @RequestParam(required = false) Boolean available,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(defaultValue = "asc") String direction,
+                                            WebRequest request){
+        String etag = service.getCatalogETag();
+        if(request.checkNotModified(etag)){
+            return null;
+        }
+        boolean listing = category != null || brand != null || minPrice != null || maxPrice != null
+                || releasedFrom != null || releasedTo != null || available != null
+                || page != null || size != null || sort != null;
+        try{
+            Object body = listing
+                    ? service.browseProducts(
+                            new ProductFilter(category, brand, minPrice, maxPrice, releasedFrom, releasedTo, available),
+                            page != null ? page : 0, size != null ? size : 24, sort != null ? sort : "id", direction)
+                    : service.getAllProducts();
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(body);
+        }
+        catch(IllegalArgumentException e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/products/page")
+    @SqlBudget(1)
+    public ResponseEntity<?> getProductPage(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "24") int size,
+                                            @RequestParam(defaultValue = "id") String sort,
+                                            @RequestParam(defaultValue = "asc") String direction,
+                                            WebRequest request){
+        String etag = service.getCatalogETag();
+        if(request.checkNotModified(etag)){
+            return null;
+        }
+        try{
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(service.getProductPage(cursor, size, sort, direction));
+        }
+        catch(IllegalArgumentException e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/product/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable int id){
+    @SqlBudget(1)
+    public ResponseEntity<Product> getProduct(@PathVariable int id, WebRequest request){
         Product product = service.getProductById(id);
         if(product != null && product.getId() != 0){
-            return new ResponseEntity<>(product, HttpStatus.OK);
+            String etag = "\"product-" + product.getId() + "-" + product.getVersion() + "\"";
+            long lastModified = product.getUpdatedAt() != null ? product.getUpdatedAt().getTime() : -1;
+            if(request.checkNotModified(etag, lastModified)){
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(product);
         }
         else{
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -46,6 +137,25 @@ public class ProductController {
         }
     }
 
+    // Streams the body into batched inserts; send text/csv with a header row, or application/x-ndjson
+    @PostMapping(value = "/products/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            @RequestParam(required = false) Integer batchSize,
+                                            InputStream body){
+        try{
+            ImportReport report = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                    ? importService.importCsv(body, batchSize)
+                    : importService.importNdjson(body, batchSize);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        }
+        catch(IllegalArgumentException e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        catch(Exception e){
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PutMapping("/product/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable int id,
                                            @RequestPart Product product,
@@ -82,20 +192,76 @@ public class ProductController {
     }
 
     @GetMapping("/product/{productId}/image")
-    public ResponseEntity<byte[]> getImageByProductId(@PathVariable int productId){
+    @SqlBudget(1)
+    public ResponseEntity<Resource> getImageByProductId(@PathVariable int productId,
+                                                        @RequestParam(required = false) String v,
+                                                        @RequestParam(required = false) String size,
+                                                        WebRequest request){
+        ImageVariant variant;
+        try{
+            variant = ImageVariant.from(size);
+        }
+        catch(IllegalArgumentException e){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         Product product = service.getProductById(productId);
-        if(product != null && product.geImagedData() != null){
-            byte[] imageFile = product.geImagedData();
+        // Thumbnails and medium renditions fall back to the original until they've been generated
+        Resource image = variant != null ? service.getImageVariant(product, variant) : null;
+        boolean resized = image != null;
+        if(image == null){
+            image = service.getImage(product);
+        }
+        if(image != null){
+            // Stored images never change, so the content hash is a strong validator
+            String etag = "\"" + product.getImageHash() + (resized ? "-" + variant.getName() : "") + "\"";
+            if(request.checkNotModified(etag)){
+                return null;
+            }
+            // A URL pinned to the current hash (?v=) can be cached forever, unless it got a stand-in
+            // for a variant that isn't ready yet; a bare URL must revalidate
+            CacheControl cacheControl = product.getImageHash().equals(v) && (variant == null || resized)
+                    ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                    : CacheControl.noCache();
+            MediaType contentType = resized
+                    ? MediaTypeFactory.getMediaType(image).orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    : MediaType.valueOf(product.getImageType());
+            // Streamed straight from the image store, never buffered on the heap
             return ResponseEntity.ok()
-                    .contentType(MediaType.valueOf(product.getImageType()))
-                    .body(imageFile);
+                    .contentType(contentType)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(image);
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
     @GetMapping("/products/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword){
-        List<Product> products = service.searchProducts(keyword);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    @SqlBudget(1)
+    public ResponseEntity<List<ProductSummary>> searchProducts(@RequestParam String keyword,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "50") int size){
+        SearchResult result = service.searchProducts(keyword, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.total()))
+                .body(result.items());
+    }
+
+    @GetMapping("/products/categories")
+    @SqlBudget(1)
+    public ResponseEntity<List<String>> getCategories(){
+        return new ResponseEntity<>(service.getCategories(), HttpStatus.OK);
+    }
+
+    @GetMapping("/products/brands")
+    @SqlBudget(1)
+    public ResponseEntity<List<String>> getBrands(){
+        return new ResponseEntity<>(service.getBrands(), HttpStatus.OK);
+    }
+
+    @GetMapping("/products/suggest")
+    @SqlBudget(1)
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix,
+                                                    @RequestParam(defaultValue = "8") int limit){
+        return new ResponseEntity<>(service.suggest(prefix, limit), HttpStatus.OK);
     }
 }
\ No newline at end of file
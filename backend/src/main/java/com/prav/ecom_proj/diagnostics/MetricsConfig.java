@@ -0,0 +1,20 @@
+package com.prav.ecom_proj.diagnostics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes @Timed work on Spring beans. Endpoints are already timed by Spring MVC
+ * (http.server.requests) and repository calls by Spring Data (spring.data.repository.invocations);
+ * this covers the service layer in between (ecom.service).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.prav.ecom_proj.diagnostics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples Hibernate's slow-query log (statements over hibernate.log_slow_query) down to a few
+ * lines per second, so a slow period shows up in the log without flooding it. Every slow
+ * statement, logged or not, counts towards ecom.db.slow.queries. Configured in logback-spring.xml.
+ */
+public class SlowQueryLogFilter extends TurboFilter {
+
+    private static final String LOGGER = "org.hibernate.SQL_SLOW";
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    private int perSecond = 5;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger logged = new AtomicInteger();
+
+    public void setPerSecond(int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Level checks (no format) pass through; so does anything below the logger's level.
+        // logger.isEnabledFor would come back through this filter, hence the direct comparison.
+        if (format == null || level == null || !LOGGER.equals(logger.getName())
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Metrics.counter("ecom.db.slow.queries").increment();
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= SECOND_NANOS && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+        }
+        return logged.incrementAndGet() <= perSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
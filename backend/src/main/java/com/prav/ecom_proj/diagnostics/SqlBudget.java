@@ -0,0 +1,16 @@
+package com.prav.ecom_proj.diagnostics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a request to this handler may issue. Going over is logged and counted in
+ * ecom.sql.budget.exceeded; with ecom.sql.budget.enforce=true (as in tests) the request fails.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+    int value();
+}
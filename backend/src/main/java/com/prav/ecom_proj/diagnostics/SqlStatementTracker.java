@@ -0,0 +1,103 @@
+package com.prav.ecom_proj.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Per-request SQL statement counts for the servlet API. Every request's count goes into the
+ * ecom.http.sql.statements summary, tagged by route, and is checked against the handler's
+ * {@link SqlBudget}. With ecom.sql.statement-header=true the count is also returned as
+ * X-SQL-Statements, taken just before the body is written.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SqlStatementTracker implements HandlerInterceptor, ResponseBodyAdvice<Object>, WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementTracker.class);
+
+    public static final String HEADER = "X-SQL-Statements";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ecom.sql.statement-header:false}")
+    private boolean header;
+
+    @Value("${ecom.sql.budget.enforce:false}")
+    private boolean enforce;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.start();
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int statements = SqlStatementCounter.current();
+        if (header) {
+            response.getHeaders().set(HEADER, String.valueOf(statements));
+        }
+        SqlBudget budget = returnType.getMethodAnnotation(SqlBudget.class);
+        if (enforce && budget != null && statements > budget.value()) {
+            throw new IllegalStateException("SQL budget exceeded: " + statements + " statements, budget "
+                    + budget.value() + ", for " + returnType.getExecutable().getName());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        int statements = SqlStatementCounter.stop();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("ecom.http.sql.statements")
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+
+        SqlBudget budget = handler instanceof HandlerMethod method ? method.getMethodAnnotation(SqlBudget.class) : null;
+        if (budget != null && statements > budget.value()) {
+            Counter.builder("ecom.sql.budget.exceeded")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} issued {} SQL statements, budget is {}", request.getMethod(), uri, statements, budget.value());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.prav.ecom_proj.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread (inside synchronized
+ * code or a native frame) for longer than a threshold. It listens to the JDK's own
+ * jdk.VirtualThreadPinned JFR event, so nothing is recorded until a pin actually happens.
+ * Each distinct stack is logged once; every occurrence counts towards ecom.threads.pinned.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 16;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ecom.threads.pinned-threshold-ms:20}")
+    private long thresholdMillis;
+
+    private RecordingStream stream;
+    private Counter pinned;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        pinned = Counter.builder("ecom.threads.pinned")
+                .description("Virtual threads that blocked while pinned to a carrier")
+                .register(meterRegistry);
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(EVENT, this::report);
+        stream.startAsync();
+        log.info("Virtual threads enabled; reporting pins longer than {} ms", thresholdMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void report(RecordedEvent event) {
+        pinned.increment();
+        String stack = frames(event.getStackTrace());
+        if (reported.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private static String frames(RecordedStackTrace trace) {
+        if (trace == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        int n = 0;
+        for (RecordedFrame frame : trace.getFrames()) {
+            if (n++ == MAX_FRAMES) {
+                sb.append("\n\t...");
+                break;
+            }
+            sb.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.FacetCount;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Filters and facet counts for catalog listings, over bitsets indexed by product id.
+ * Category and brand values each have a postings bitset, so a filter is a few word-wide ORs and ANDs,
+ * plus a column of value ordinals per id, so counting a facet costs one array read per match.
+ * Values are matched case-insensitively and shown as first indexed. Price and date ranges come
+ * from ProductSortIndex and are passed in as a bitset of their own.
+ */
+@Component
+public class ProductFacetIndex implements ProductIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+
+    private static final Comparator<FacetCount> BY_COUNT = Comparator.comparingInt(FacetCount::count).reversed()
+            .thenComparing(FacetCount::value, String.CASE_INSENSITIVE_ORDER);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Facet categories = new Facet();
+    private final Facet brands = new Facet();
+    private final BitSet all = new BitSet();
+    private final BitSet available = new BitSet();
+
+    public record Result(BitSet matches, Map<String, List<FacetCount>> facets) {
+        public int total() {
+            return matches.cardinality();
+        }
+
+        // The first ids of a page in id order
+        public List<Integer> ids(int offset, int limit) {
+            List<Integer> ids = new ArrayList<>(limit);
+            int skip = offset;
+            for (int id = matches.nextSetBit(0); id >= 0 && ids.size() < limit; id = matches.nextSetBit(id + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+    }
+
+    // One string field: postings per distinct value, and each product's value ordinal (+1, 0 for none)
+    private static final class Facet {
+        final Map<String, Integer> ords = new HashMap<>();
+        final List<String> labels = new ArrayList<>();
+        final List<BitSet> postings = new ArrayList<>();
+        int[] column = new int[0];
+
+        void put(int id, String value) {
+            remove(id);
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String label = value.strip();
+            Integer ord = ords.get(key(label));
+            if (ord == null) {
+                ord = labels.size();
+                ords.put(key(label), ord);
+                labels.add(label);
+                postings.add(new BitSet());
+            }
+            postings.get(ord).set(id);
+            if (id >= column.length) {
+                column = Arrays.copyOf(column, Math.max(id + 1, column.length * 2));
+            }
+            column[id] = ord + 1;
+        }
+
+        void remove(int id) {
+            if (id < column.length && column[id] != 0) {
+                postings.get(column[id] - 1).clear(id);
+                column[id] = 0;
+            }
+        }
+
+        void clear() {
+            ords.clear();
+            labels.clear();
+            postings.clear();
+            column = new int[0];
+        }
+
+        // Products carrying any of the values; null when no value is asked for
+        BitSet matching(List<String> values) {
+            if (values.isEmpty()) {
+                return null;
+            }
+            BitSet union = new BitSet();
+            for (String value : values) {
+                Integer ord = value != null ? ords.get(key(value.strip())) : null;
+                if (ord != null) {
+                    union.or(postings.get(ord));
+                }
+            }
+            return union;
+        }
+
+        // Values present among the matches, most common first
+        List<FacetCount> count(BitSet matches) {
+            int[] counts = new int[labels.size()];
+            for (int id = matches.nextSetBit(0); id >= 0 && id < column.length; id = matches.nextSetBit(id + 1)) {
+                int ord = column[id];
+                if (ord != 0) {
+                    counts[ord - 1]++;
+                }
+            }
+            List<FacetCount> result = new ArrayList<>();
+            for (int ord = 0; ord < counts.length; ord++) {
+                if (counts[ord] > 0) {
+                    result.add(new FacetCount(labels.get(ord), counts[ord]));
+                }
+            }
+            result.sort(BY_COUNT);
+            return result;
+        }
+
+        private static String key(String value) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        int id = product.getId();
+        lock.writeLock().lock();
+        try {
+            categories.put(id, product.getCategory());
+            brands.put(id, product.getBrand());
+            all.set(id);
+            available.set(id, product.isAvailable());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            categories.remove(productId);
+            brands.remove(productId);
+            all.clear(productId);
+            available.clear(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            brands.clear();
+            all.clear();
+            available.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Every match, with counts for every facet; within is an extra restriction, null for none
+    public Result query(ProductFilter filter, BitSet within) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) all.clone();
+            if (within != null) {
+                base.and(within);
+            }
+            if (filter.available() != null) {
+                if (filter.available()) {
+                    base.and(available);
+                } else {
+                    base.andNot(available);
+                }
+            }
+
+            // A facet is counted under every filter but its own, so picking one category still
+            // shows how many products the other categories would give
+            BitSet byCategory = categories.matching(filter.categories());
+            BitSet byBrand = brands.matching(filter.brands());
+            BitSet forCategories = intersect(base, byBrand);
+            BitSet forBrands = intersect(base, byCategory);
+            BitSet matches = intersect(forCategories, byCategory);
+
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, categories.count(forCategories));
+            facets.put(BRAND, brands.count(forBrands));
+            return new Result(matches, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static BitSet intersect(BitSet a, BitSet b) {
+        if (b == null) {
+            return a;
+        }
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+}
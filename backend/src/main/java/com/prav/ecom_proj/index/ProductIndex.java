@@ -0,0 +1,14 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+
+// In-memory view over the catalog that ProductService keeps in sync on every write
+public interface ProductIndex {
+
+    // Adds the product, or replaces whatever was indexed for its id
+    void put(Product product);
+
+    void remove(int productId);
+
+    void clear();
+}
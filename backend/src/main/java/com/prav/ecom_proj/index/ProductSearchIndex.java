@@ -0,0 +1,276 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product name, brand, category and description, ranked with BM25.
+ * Each query token matches exact terms, terms it is a prefix of (for search-as-you-type),
+ * and terms containing it via a trigram index (what the old LIKE '%kw%' used to find).
+ * Multi-token queries are AND-ed.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights are folded into term frequency, so a name hit outranks a description hit
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESC_WEIGHT = 1.0f;
+
+    // Partial matches count for less than an exact term
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final float INFIX_BOOST = 0.5f;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> weighted term frequency), sorted so prefixes are a range scan
+    private final NavigableMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    // trigram -> terms containing it
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    // product id -> its weighted term frequencies, needed to undo an update
+    private final Map<Integer, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Integer, Float> lengths = new HashMap<>();
+    private double totalLength;
+
+    public record Hits(int total, List<Integer> ids) {
+    }
+
+    @Override
+    public void put(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getBrand(), BRAND_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, product.getDesc(), DESC_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            float length = 0;
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                Map<Integer, Float> docs = postings.get(term.getKey());
+                if (docs == null) {
+                    docs = new HashMap<>();
+                    postings.put(term.getKey(), docs);
+                    for (String gram : trigramsOf(term.getKey())) {
+                        trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(term.getKey());
+                    }
+                }
+                docs.put(product.getId(), term.getValue());
+                length += term.getValue();
+            }
+            documents.put(product.getId(), terms);
+            lengths.put(product.getId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigrams.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Hits search(String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return new Hits(0, List.of());
+            }
+            double avgLength = totalLength / docCount;
+
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = scoreToken(token, docCount, avgLength);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND: keep only products that matched every token so far
+                    Map<Integer, Float> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+                        Float other = tokenScores.get(e.getKey());
+                        if (other != null) {
+                            merged.put(e.getKey(), e.getValue() + other);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return new Hits(0, List.of());
+                }
+            }
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int cmp = Float.compare(b.getValue(), a.getValue());
+                return cmp != 0 ? cmp : Integer.compare(a.getKey(), b.getKey());
+            });
+
+            // In long so a huge page number lands past the end instead of wrapping negative
+            int from = (int) Math.min((long) page * size, ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            List<Integer> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return new Hits(ranked.size(), ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best BM25 score per product across all terms this token expands to
+    private Map<Integer, Float> scoreToken(String token, int docCount, double avgLength) {
+        Map<String, Float> expansions = expand(token);
+        Map<Integer, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            Map<Integer, Float> docs = postings.get(expansion.getKey());
+            double df = docs.size();
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            for (Map.Entry<Integer, Float> doc : docs.entrySet()) {
+                float tf = doc.getValue();
+                double norm = K1 * (1 - B + B * lengths.get(doc.getKey()) / avgLength);
+                float score = (float) (expansion.getValue() * idf * tf * (K1 + 1) / (tf + norm));
+                scores.merge(doc.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private Map<String, Float> expand(String token) {
+        Map<String, Float> terms = new HashMap<>();
+        if (postings.containsKey(token)) {
+            terms.put(token, 1.0f);
+        }
+
+        for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            if (terms.size() >= MAX_EXPANSIONS) {
+                return terms;
+            }
+            terms.put(term, PREFIX_BOOST);
+        }
+
+        if (token.length() >= 3) {
+            Set<String> candidates = null;
+            for (String gram : trigramsOf(token)) {
+                Set<String> withGram = trigrams.getOrDefault(gram, Set.of());
+                if (candidates == null) {
+                    candidates = new HashSet<>(withGram);
+                } else {
+                    candidates.retainAll(withGram);
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+            }
+            for (String term : candidates) {
+                if (terms.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                // Trigrams only narrow the candidates, so confirm the real substring match
+                if (term.contains(token)) {
+                    terms.putIfAbsent(term, INFIX_BOOST);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private void removeDocument(int productId) {
+        Map<String, Float> terms = documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Integer, Float> docs = postings.get(term);
+            docs.remove(productId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigramsOf(term)) {
+                    Set<String> withGram = trigrams.get(gram);
+                    withGram.remove(term);
+                    if (withGram.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+        totalLength -= lengths.remove(productId);
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> trigramsOf(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
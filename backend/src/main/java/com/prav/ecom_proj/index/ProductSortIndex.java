@@ -0,0 +1,364 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.ProductSortKey;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Price and release date as primitive sorted columns: price in cents, the date as an epoch day.
+ * Each column is a long[] of keys sorted by (key, id) with the matching int[] of product ids, so a
+ * range is two binary searches and a sorted page is a walk along the arrays, with nothing boxed.
+ * Nulls sort as 0, like the SQL listing's coalesce, but never match a range.
+ * Single writes are spliced in place; past MAX_SPLICES within one SPLICE_WINDOW (a bulk load or
+ * import) the columns are only marked stale and re-sorted in one pass by the next query.
+ */
+@Component
+public class ProductSortIndex implements ProductIndex {
+
+    private static final int MAX_SPLICES = 1024;
+    private static final long SPLICE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSplices;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Column prices = new Column();
+    private final Column releaseDates = new Column();
+    private volatile boolean stale;
+    // Splices in the window that started at windowStart
+    private int splices;
+    private long windowStart = System.nanoTime();
+
+    public ProductSortIndex() {
+        this(MAX_SPLICES);
+    }
+
+    ProductSortIndex(int maxSplices) {
+        this.maxSplices = maxSplices;
+    }
+
+    private static final class Column {
+        // Current key by product id, and which ids are indexed / null
+        long[] values = new long[0];
+        final BitSet present = new BitSet();
+        final BitSet missing = new BitSet();
+        // Sorted by (key, id); only the first size slots are used
+        long[] keys = new long[0];
+        int[] ids = new int[0];
+        int size;
+
+        void set(int id, Long key, boolean splice) {
+            if (splice && present.get(id)) {
+                delete(values[id], id);
+            }
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+            }
+            values[id] = key != null ? key : 0;
+            present.set(id);
+            missing.set(id, key == null);
+            if (splice) {
+                insert(values[id], id);
+            }
+        }
+
+        void unset(int id, boolean splice) {
+            if (!present.get(id)) {
+                return;
+            }
+            if (splice) {
+                delete(values[id], id);
+            }
+            present.clear(id);
+            missing.clear(id);
+        }
+
+        void clear() {
+            values = new long[0];
+            present.clear();
+            missing.clear();
+            keys = new long[0];
+            ids = new int[0];
+            size = 0;
+        }
+
+        void insert(long key, int id) {
+            int at = lowerBound(key, id);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(16, size * 2));
+                ids = Arrays.copyOf(ids, keys.length);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            keys[at] = key;
+            ids[at] = id;
+            size++;
+        }
+
+        void delete(long key, int id) {
+            int at = lowerBound(key, id);
+            if (at < size && keys[at] == key && ids[at] == id) {
+                System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void rebuild() {
+            size = present.cardinality();
+            keys = new long[size];
+            ids = new int[size];
+            int n = 0;
+            for (int id = present.nextSetBit(0); id >= 0; id = present.nextSetBit(id + 1)) {
+                keys[n] = values[id];
+                ids[n++] = id;
+            }
+            // Ids went in ascending, so a stable sort on the key alone leaves ties ordered by id
+            sort(keys, ids, size);
+        }
+
+        // First slot whose key is above the given one
+        int upperBound(long key) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First slot whose (key, id) is not below the given pair
+        int lowerBound(long key, int id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key || (keys[mid] == key && ids[mid] < id)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            boolean splice = splice();
+            prices.set(product.getId(), product.getPrice() != null ? cents(product.getPrice()) : null, splice);
+            releaseDates.set(product.getId(), product.getRelease_date() != null ? epochDay(product.getRelease_date()) : null, splice);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            boolean splice = splice();
+            prices.unset(productId, splice);
+            releaseDates.unset(productId, splice);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            prices.clear();
+            releaseDates.clear();
+            stale = false;
+            splices = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean supports(ProductSortKey sortKey) {
+        return sortKey == ProductSortKey.PRICE || sortKey == ProductSortKey.RELEASE_DATE;
+    }
+
+    // Ids whose value lies in [from, to]; a null bound leaves that side open
+    public BitSet range(ProductSortKey sortKey, Long from, Long to) {
+        lockSorted();
+        try {
+            Column column = column(sortKey);
+            int start = from != null ? column.lowerBound(from, Integer.MIN_VALUE) : 0;
+            int end = to != null ? column.upperBound(to) : column.size;
+            BitSet result = new BitSet();
+            for (int i = start; i < end; i++) {
+                result.set(column.ids[i]);
+            }
+            result.andNot(column.missing);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One page of the given ids in (key, id) order; null filter means every product
+    public List<Integer> page(ProductSortKey sortKey, boolean descending, BitSet filter, int offset, int limit) {
+        lockSorted();
+        try {
+            Column column = column(sortKey);
+            List<Integer> result = new ArrayList<>(limit);
+            int skip = offset;
+            for (int n = 0; n < column.size && result.size() < limit; n++) {
+                int id = column.ids[descending ? column.size - 1 - n : n];
+                if (filter != null && !filter.get(id)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keyset page: the next ids strictly past (afterKey, afterId) in sort order
+    public List<Integer> after(ProductSortKey sortKey, boolean descending, long afterKey, int afterId, int limit) {
+        lockSorted();
+        try {
+            Column column = column(sortKey);
+            int at = column.lowerBound(afterKey, afterId);
+            List<Integer> result = new ArrayList<>(limit);
+            if (descending) {
+                for (int i = at - 1; i >= 0 && result.size() < limit; i--) {
+                    result.add(column.ids[i]);
+                }
+            } else {
+                if (at < column.size && column.keys[at] == afterKey && column.ids[at] == afterId) {
+                    at++;
+                }
+                for (int i = at; i < column.size && result.size() < limit; i++) {
+                    result.add(column.ids[i]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long cents(BigDecimal amount) {
+        return cents(amount, RoundingMode.HALF_UP);
+    }
+
+    public static long cents(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    // java.util.Date is read in the JVM zone, which is how it is written to a DATE column
+    public static long epochDay(Date date) {
+        return date instanceof java.sql.Date sqlDate
+                ? sqlDate.toLocalDate().toEpochDay()
+                : LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    // Holding the write lock
+    private boolean splice() {
+        long now = System.nanoTime();
+        if (now - windowStart > SPLICE_WINDOW) {
+            windowStart = now;
+            splices = 0;
+        }
+        if (!stale && ++splices > maxSplices) {
+            stale = true;
+        }
+        return !stale;
+    }
+
+    // Takes the read lock on sorted columns, re-sorting first if writes left them stale
+    private void lockSorted() {
+        while (true) {
+            lock.readLock().lock();
+            if (!stale) {
+                return;
+            }
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (stale) {
+                    prices.rebuild();
+                    releaseDates.rebuild();
+                    stale = false;
+                    splices = 0;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Column column(ProductSortKey sortKey) {
+        return switch (sortKey) {
+            case PRICE -> prices;
+            case RELEASE_DATE -> releaseDates;
+            default -> throw new IllegalArgumentException("Not indexed for sorting: " + sortKey.getAttribute());
+        };
+    }
+
+    // Bottom-up merge sort of keys, carrying ids along; stable
+    private static void sort(long[] keys, int[] ids, int size) {
+        long[] keyBuffer = new long[size];
+        int[] idBuffer = new int[size];
+        long[] srcKeys = keys;
+        int[] srcIds = ids;
+        long[] dstKeys = keyBuffer;
+        int[] dstIds = idBuffer;
+        for (int width = 1; width < size; width *= 2) {
+            for (int lo = 0; lo < size; lo += 2 * width) {
+                int mid = Math.min(lo + width, size);
+                int hi = Math.min(lo + 2 * width, size);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (i < mid && (j >= hi || srcKeys[i] <= srcKeys[j])) {
+                        dstKeys[k] = srcKeys[i];
+                        dstIds[k] = srcIds[i++];
+                    } else {
+                        dstKeys[k] = srcKeys[j];
+                        dstIds[k] = srcIds[j++];
+                    }
+                }
+            }
+            long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            int[] swapIds = srcIds;
+            srcIds = dstIds;
+            dstIds = swapIds;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, size);
+            System.arraycopy(srcIds, 0, ids, 0, size);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.Suggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over product names, brands and categories.
+ * Phrases live in a radix trie keyed by every word-start suffix, so "gal" finds "Samsung Galaxy S24".
+ * Each node caches its own top-k phrases by popularity (how many products carry the phrase),
+ * which makes a lookup a walk down the prefix with no scanning of the subtree.
+ */
+@Component
+public class ProductSuggestIndex implements ProductIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Phrase[] NO_PHRASES = new Phrase[0];
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Most popular first, then alphabetical
+    private static final Comparator<Phrase> RANKING = (a, b) -> {
+        int cmp = Integer.compare(b.weight, a.weight);
+        return cmp != 0 ? cmp : a.text.compareToIgnoreCase(b.text);
+    };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Phrase> phrases = new HashMap<>();
+    private final Map<Integer, List<Phrase>> byProduct = new HashMap<>();
+
+    private static final class Phrase {
+        final String field;
+        final String text;
+        int weight;
+
+        Phrase(String field, String text) {
+            this.field = field;
+            this.text = text;
+        }
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        Phrase[] terminals = NO_PHRASES;
+        Phrase[] top = NO_PHRASES;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    @Override
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            release(product.getId());
+            List<Phrase> owned = new ArrayList<>(3);
+            acquire(owned, "name", product.getName());
+            acquire(owned, "brand", product.getBrand());
+            acquire(owned, "category", product.getCategory());
+            byProduct.put(product.getId(), owned);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            release(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children = NO_CHILDREN;
+            root.terminals = NO_PHRASES;
+            root.top = NO_PHRASES;
+            phrases.clear();
+            byProduct.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int offset = 0;
+            while (offset < key.length()) {
+                Node child = child(node, key.charAt(offset));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, offset);
+                if (offset + common == key.length()) {
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                offset += common;
+                node = child;
+            }
+
+            int n = Math.min(Math.max(limit, 1), node.top.length);
+            List<Suggestion> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Phrase phrase = node.top[i];
+                result.add(new Suggestion(phrase.text, phrase.field, phrase.weight));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void acquire(List<Phrase> owned, String field, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String display = text.strip();
+        String id = field + ':' + display.toLowerCase(Locale.ROOT);
+        Phrase phrase = phrases.get(id);
+        boolean isNew = phrase == null;
+        if (isNew) {
+            phrase = new Phrase(field, display);
+            phrases.put(id, phrase);
+        }
+        phrase.weight++;
+        owned.add(phrase);
+        for (String key : keysOf(display)) {
+            if (isNew) {
+                insert(root, key, 0, phrase);
+            } else {
+                // Weight went up, so the phrase may climb the cached rankings along every path
+                promote(root, key, 0, phrase);
+            }
+        }
+    }
+
+    private void release(int productId) {
+        List<Phrase> owned = byProduct.remove(productId);
+        if (owned == null) {
+            return;
+        }
+        for (Phrase phrase : owned) {
+            phrase.weight--;
+            boolean gone = phrase.weight == 0;
+            if (gone) {
+                phrases.remove(phrase.field + ':' + phrase.text.toLowerCase(Locale.ROOT));
+            }
+            for (String key : keysOf(phrase.text)) {
+                if (gone) {
+                    delete(root, key, 0, phrase);
+                } else {
+                    refresh(root, key, 0, phrase);
+                }
+            }
+        }
+    }
+
+    private void insert(Node node, String key, int offset, Phrase phrase) {
+        if (offset == key.length()) {
+            node.terminals = with(node.terminals, phrase);
+        } else {
+            Node child = child(node, key.charAt(offset));
+            if (child == null) {
+                child = new Node(key.substring(offset));
+                addChild(node, child);
+            } else {
+                int common = commonPrefix(child.label, key, offset);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+            }
+            insert(child, key, offset + child.label.length(), phrase);
+        }
+        node.top = promote(node.top, phrase);
+    }
+
+    private void delete(Node node, String key, int offset, Phrase phrase) {
+        if (offset == key.length()) {
+            node.terminals = without(node.terminals, phrase);
+        } else {
+            Node child = child(node, key.charAt(offset));
+            if (child == null || commonPrefix(child.label, key, offset) < child.label.length()) {
+                return;
+            }
+            delete(child, key, offset + child.label.length(), phrase);
+            if (child.terminals.length == 0 && child.children.length == 0) {
+                removeChild(node, child);
+            }
+        }
+        if (contains(node.top, phrase)) {
+            node.top = rank(node);
+        }
+    }
+
+    private void promote(Node node, String key, int offset, Phrase phrase) {
+        if (offset < key.length()) {
+            Node child = child(node, key.charAt(offset));
+            if (child == null || commonPrefix(child.label, key, offset) < child.label.length()) {
+                return;
+            }
+            promote(child, key, offset + child.label.length(), phrase);
+        }
+        node.top = promote(node.top, phrase);
+    }
+
+    private void refresh(Node node, String key, int offset, Phrase phrase) {
+        if (offset < key.length()) {
+            Node child = child(node, key.charAt(offset));
+            if (child == null || commonPrefix(child.label, key, offset) < child.label.length()) {
+                return;
+            }
+            refresh(child, key, offset + child.label.length(), phrase);
+        }
+        // A phrase that lost weight can only change a ranking it was part of
+        if (contains(node.top, phrase)) {
+            node.top = rank(node);
+        }
+    }
+
+    // Slots a phrase whose weight only went up into a cached top-k without looking at the subtree,
+    // which keeps inserts cheap under nodes with many children
+    private static Phrase[] promote(Phrase[] top, Phrase phrase) {
+        List<Phrase> ranked = new ArrayList<>(top.length + 1);
+        for (Phrase p : top) {
+            if (p != phrase) {
+                ranked.add(p);
+            }
+        }
+        int at = 0;
+        while (at < ranked.size() && RANKING.compare(ranked.get(at), phrase) <= 0) {
+            at++;
+        }
+        if (at >= MAX_SUGGESTIONS) {
+            return top;
+        }
+        ranked.add(at, phrase);
+        if (ranked.size() > MAX_SUGGESTIONS) {
+            ranked.remove(ranked.size() - 1);
+        }
+        return ranked.toArray(NO_PHRASES);
+    }
+
+    private static boolean contains(Phrase[] phrases, Phrase phrase) {
+        for (Phrase p : phrases) {
+            if (p == phrase) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Top-k of this node's own phrases and its children's cached top-k, deduplicated
+    private static Phrase[] rank(Node node) {
+        Set<Phrase> candidates = new LinkedHashSet<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        Phrase[] ranked = candidates.toArray(NO_PHRASES);
+        Arrays.sort(ranked, RANKING);
+        return ranked.length > MAX_SUGGESTIONS ? Arrays.copyOf(ranked, MAX_SUGGESTIONS) : ranked;
+    }
+
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.children = new Node[]{child};
+        middle.top = child.top;
+        replaceChild(parent, child, middle);
+        return middle;
+    }
+
+    private static Node child(Node node, char c) {
+        int lo = 0;
+        int hi = node.children.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = node.children[mid].label.charAt(0);
+            if (label < c) {
+                lo = mid + 1;
+            } else if (label > c) {
+                hi = mid - 1;
+            } else {
+                return node.children[mid];
+            }
+        }
+        return null;
+    }
+
+    private static void addChild(Node node, Node child) {
+        Node[] children = Arrays.copyOf(node.children, node.children.length + 1);
+        int i = children.length - 1;
+        while (i > 0 && children[i - 1].label.charAt(0) > child.label.charAt(0)) {
+            children[i] = children[i - 1];
+            i--;
+        }
+        children[i] = child;
+        node.children = children;
+    }
+
+    private static void replaceChild(Node node, Node oldChild, Node newChild) {
+        for (int i = 0; i < node.children.length; i++) {
+            if (node.children[i] == oldChild) {
+                node.children[i] = newChild;
+                return;
+            }
+        }
+    }
+
+    private static void removeChild(Node node, Node child) {
+        Node[] children = new Node[node.children.length - 1];
+        int j = 0;
+        for (Node c : node.children) {
+            if (c != child) {
+                children[j++] = c;
+            }
+        }
+        node.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+
+    private static Phrase[] with(Phrase[] phrases, Phrase phrase) {
+        for (Phrase p : phrases) {
+            if (p == phrase) {
+                return phrases;
+            }
+        }
+        Phrase[] result = Arrays.copyOf(phrases, phrases.length + 1);
+        result[phrases.length] = phrase;
+        return result;
+    }
+
+    private static Phrase[] without(Phrase[] phrases, Phrase phrase) {
+        int j = 0;
+        Phrase[] result = new Phrase[phrases.length];
+        for (Phrase p : phrases) {
+            if (p != phrase) {
+                result[j++] = p;
+            }
+        }
+        return j == 0 ? NO_PHRASES : Arrays.copyOf(result, j);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int n = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Every suffix of the phrase that starts at a word boundary
+    private static Set<String> keysOf(String text) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
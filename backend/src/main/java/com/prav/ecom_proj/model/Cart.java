@@ -6,28 +6,43 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Date;
 
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}))
 public class Cart {
 
+    // Pooled sequence instead of IDENTITY so write-behind flushes can batch their inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
     private int id;
 
+    // Owner of this line: a session or user key sent as X-Cart-Id
+    @Column(name = "cart_id", nullable = false, length = 64)
+    private String cartId;
+
     @ManyToOne
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
     private int quantity;
 
+    // Last time this line's stock reservation was written; lines idle past the TTL give their stock back
+    private Date reservedAt;
+
     // Getters
     public int getId() {
         return id;
     }
 
+    public String getCartId() {
+        return cartId;
+    }
+
     public Product getProduct() {
         return product;
     }
@@ -36,11 +51,19 @@ public class Cart {
         return quantity;
     }
 
+    public Date getReservedAt() {
+        return reservedAt;
+    }
+
     // Setters
     public void setId(int id) {
         this.id = id;
     }
 
+    public void setCartId(String cartId) {
+        this.cartId = cartId;
+    }
+
     public void setProduct(Product product) {
         this.product = product;
     }
@@ -49,6 +72,10 @@ public class Cart {
         this.quantity = quantity;
     }
 
+    public void setReservedAt(Date reservedAt) {
+        this.reservedAt = reservedAt;
+    }
+
     // Business method
     public BigDecimal getSubtotal() {
         if (product == null || product.getPrice() == null) {
@@ -62,6 +89,7 @@ public class Cart {
     public String toString() {
         return "Cart{" +
                 "id=" + id +
+                ", cartId='" + cartId + '\'' +
                 ", product=" + (product != null ? product.getName() : "null") +
                 ", quantity=" + quantity +
                 ", subtotal=" + getSubtotal() +
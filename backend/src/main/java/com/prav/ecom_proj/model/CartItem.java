@@ -0,0 +1,14 @@
+package com.prav.ecom_proj.model;
+
+import java.math.BigDecimal;
+
+// One line of a cart as served by the API; id is the product id, unique within a cart
+public record CartItem(int id, Product product, int quantity) {
+
+    public BigDecimal getSubtotal() {
+        if (product == null || product.getPrice() == null) {
+            return BigDecimal.ZERO;
+        }
+        return product.getPrice().multiply(BigDecimal.valueOf(quantity));
+    }
+}
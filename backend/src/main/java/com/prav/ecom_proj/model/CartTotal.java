@@ -0,0 +1,13 @@
+package com.prav.ecom_proj.model;
+
+import java.math.BigDecimal;
+
+// Cart value and number of units across all cart lines
+public record CartTotal(BigDecimal total, long itemCount) {
+
+    public static final CartTotal EMPTY = new CartTotal(BigDecimal.ZERO, 0);
+
+    public CartTotal plus(BigDecimal amount, long items) {
+        return new CartTotal(total.add(amount), itemCount + items);
+    }
+}
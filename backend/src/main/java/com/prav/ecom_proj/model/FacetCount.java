@@ -0,0 +1,5 @@
+package com.prav.ecom_proj.model;
+
+// How many of the current matches carry a facet value, were that value's facet left unfiltered
+public record FacetCount(String value, int count) {
+}
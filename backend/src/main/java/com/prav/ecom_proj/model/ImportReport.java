@@ -0,0 +1,7 @@
+package com.prav.ecom_proj.model;
+
+import java.util.List;
+
+// Outcome of a bulk product import; errors holds the first few rejected rows with their row numbers
+public record ImportReport(long imported, long skipped, long elapsedMillis, double rowsPerSecond, List<String> errors) {
+}
@@ -5,18 +5,27 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.util.Date;
 
+// Second-level cached; the row holds only the image hash, so no image bytes end up in the cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Product {
 
+    // Pooled sequence so inserts can be JDBC-batched; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private int id;
     private String name;
     private String desc;
@@ -30,8 +39,17 @@ public class Product {
 
     private String imageName;
     private String imageType;
-    @Lob
-    private byte[] imageData;
+    // SHA-256 of the image bytes; the bytes themselves live in the ImageStore
+    private String imageHash;
+    private Long imageSize;
+
+    // Bumped by Hibernate on every update; drives the product ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+    @UpdateTimestamp
+    private Date updatedAt;
 
     // Getters
     public int getId() {
@@ -78,13 +96,20 @@ public class Product {
         return imageType;
     }
 
-    public byte[] getImageData() {
-        return imageData;
+    public String getImageHash() {
+        return imageHash;
     }
 
-    // Alternative method name (as used in your controller)
-    public byte[] geImagedData() {
-        return imageData;
+    public Long getImageSize() {
+        return imageSize;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
     }
 
     // Setters
@@ -132,8 +157,20 @@ public class Product {
         this.imageType = imageType;
     }
 
-    public void setImageData(byte[] imageData) {
-        this.imageData = imageData;
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public void setImageSize(Long imageSize) {
+        this.imageSize = imageSize;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
     }
 
     // toString method
@@ -151,6 +188,8 @@ public class Product {
                 ", quantity=" + quantity +
                 ", imageName='" + imageName + '\'' +
                 ", imageType='" + imageType + '\'' +
+                ", imageHash='" + imageHash + '\'' +
+                ", version=" + version +
                 '}';
     }
 
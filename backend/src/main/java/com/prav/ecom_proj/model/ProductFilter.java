@@ -0,0 +1,17 @@
+package com.prav.ecom_proj.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Listing filters; values within categories (or brands) are OR-ed, everything else is AND-ed.
+// Empty lists and null bounds leave that dimension unfiltered; range bounds are inclusive.
+public record ProductFilter(List<String> categories, List<String> brands,
+                            BigDecimal minPrice, BigDecimal maxPrice,
+                            LocalDate releasedFrom, LocalDate releasedTo, Boolean available) {
+
+    public ProductFilter {
+        categories = categories != null ? List.copyOf(categories) : List.of();
+        brands = brands != null ? List.copyOf(brands) : List.of();
+    }
+}
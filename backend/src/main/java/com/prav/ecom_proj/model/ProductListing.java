@@ -0,0 +1,8 @@
+package com.prav.ecom_proj.model;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of a filtered listing, the total number of matches, and facet counts keyed by facet name
+public record ProductListing(List<ProductSummary> items, int total, Map<String, List<FacetCount>> facets) {
+}
@@ -0,0 +1,7 @@
+package com.prav.ecom_proj.model;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; nextCursor is null on the last page
+public record ProductPage(List<ProductSummary> items, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.prav.ecom_proj.model;
+
+import java.util.Date;
+
+// The columns a stock move changes, read back to refresh a cached Product
+public record ProductStock(int quantity, long version, Date updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.prav.ecom_proj.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+// Listing view of a Product, selected column-by-column so no entity is hydrated
+public record ProductSummary(
+        int id,
+        String name,
+        String brand,
+        BigDecimal price,
+        String category,
+        @JsonProperty("release_date")
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+        Date releaseDate,
+        boolean available,
+        int quantity,
+        String imageHash) {
+}
@@ -0,0 +1,7 @@
+package com.prav.ecom_proj.model;
+
+import java.util.List;
+
+// One page of ranked search results plus the total number of matches
+public record SearchResult(List<ProductSummary> items, int total) {
+}
@@ -0,0 +1,5 @@
+package com.prav.ecom_proj.model;
+
+// A typeahead completion; field is name, brand or category, weight is how many products carry it
+public record Suggestion(String text, String field, int weight) {
+}
@@ -0,0 +1,89 @@
+package com.prav.ecom_proj.reactive;
+
+import com.prav.ecom_proj.model.CartItem;
+import com.prav.ecom_proj.model.CartTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+// CartController's contract on WebFlux: every call is scoped to the X-Cart-Id header
+@RestController
+@Profile("reactive")
+@CrossOrigin
+@RequestMapping("/api/cart")
+public class ReactiveCartController {
+
+    private static final String CART_HEADER = "X-Cart-Id";
+    private static final Pattern CART_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private ReactiveCartService cartService;
+
+    @GetMapping
+    public Flux<CartItem> getAllCartItems(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
+        return cartService.getAllCartItems(validCartId(cartId));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CartItem>> getCartItemById(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                                          @PathVariable int id) {
+        return cartService.getCartItemById(validCartId(cartId), id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> addToCart(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                             @RequestParam int productId, @RequestParam int quantity) {
+        return cartService.addToCart(validCartId(cartId), productId, quantity)
+                .<ResponseEntity<?>>map(cart -> new ResponseEntity<>(cart, HttpStatus.CREATED))
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateCartItem(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                                  @PathVariable int id, @RequestParam int quantity) {
+        return cartService.updateCartQuantity(validCartId(cartId), id, quantity)
+                .<ResponseEntity<?>>map(cart -> new ResponseEntity<>(cart, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>("Cart item not found", HttpStatus.NOT_FOUND))
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteCartItem(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId,
+                                                  @PathVariable int id) {
+        return cartService.deleteCartItem(validCartId(cartId), id)
+                .then(Mono.<ResponseEntity<?>>just(new ResponseEntity<>("Cart item deleted successfully", HttpStatus.OK)))
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    @DeleteMapping
+    public Mono<ResponseEntity<?>> clearCart(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
+        return cartService.clearCart(validCartId(cartId))
+                .then(Mono.<ResponseEntity<?>>just(new ResponseEntity<>("Cart cleared successfully", HttpStatus.OK)))
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR)));
+    }
+
+    @GetMapping("/total")
+    public Mono<CartTotal> getCartTotal(@RequestHeader(value = CART_HEADER, defaultValue = "default") String cartId) {
+        return cartService.getCartTotal(validCartId(cartId));
+    }
+
+    private static String validCartId(String cartId) {
+        if (!CART_ID.matcher(cartId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + CART_HEADER);
+        }
+        return cartId;
+    }
+}
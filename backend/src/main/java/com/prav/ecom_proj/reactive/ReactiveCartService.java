@@ -0,0 +1,168 @@
+package com.prav.ecom_proj.reactive;
+
+import com.prav.ecom_proj.model.CartItem;
+import com.prav.ecom_proj.model.CartTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cart operations for the reactive stack, working directly on the cart table.
+ * Stock moves with the cart lines in the same transaction, exactly as in CartService, and
+ * lines carry reserved_at, so CartStore's reservation sweep expires these carts too.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCartService {
+
+    private static final String LINES = "SELECT c.quantity AS cart_quantity, " + ReactiveProductRepository.COLUMNS +
+            " FROM cart c JOIN product p ON p.id = c.product_id WHERE c.cart_id = :cartId";
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private ReactiveProductRepository products;
+
+    @Autowired
+    private TransactionalOperator transactions;
+
+    public Flux<CartItem> getAllCartItems(String cartId) {
+        return db.sql(LINES + " ORDER BY c.id")
+                .bind("cartId", cartId)
+                .map(row -> new CartItem(row.get("id", Integer.class), ReactiveProductRepository.product(row),
+                        row.get("cart_quantity", Integer.class)))
+                .all();
+    }
+
+    public Mono<CartItem> getCartItemById(String cartId, int productId) {
+        return db.sql(LINES + " AND c.product_id = :productId")
+                .bind("cartId", cartId)
+                .bind("productId", productId)
+                .map(row -> new CartItem(productId, ReactiveProductRepository.product(row),
+                        row.get("cart_quantity", Integer.class)))
+                .one();
+    }
+
+    public Mono<CartItem> addToCart(String cartId, int productId, int quantity) {
+        if (quantity <= 0) {
+            return Mono.error(new RuntimeException("Quantity must be greater than 0"));
+        }
+        return products.findById(productId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Product not found")))
+                .flatMap(product -> {
+                    if (!product.isAvailable()) {
+                        return Mono.error(new RuntimeException("Product is not available"));
+                    }
+                    // The reservation itself is the stock check; it fails instead of overselling
+                    return products.reserveStock(productId, quantity)
+                            .flatMap(reserved -> reserved
+                                    ? addLine(cartId, productId, quantity)
+                                    : products.findById(productId).flatMap(current -> Mono.error(
+                                    new RuntimeException("Insufficient stock. Available: " + current.getQuantity()))))
+                            .then(getCartItemById(cartId, productId));
+                })
+                .as(transactions::transactional)
+                // Two first adds of the same product race on the unique key; the loser simply goes again
+                .retryWhen(Retry.max(1).filter(DataIntegrityViolationException.class::isInstance));
+    }
+
+    public Mono<CartItem> updateCartQuantity(String cartId, int productId, int quantity) {
+        if (quantity <= 0) {
+            return Mono.error(new RuntimeException("Quantity must be greater than 0"));
+        }
+        return lockedQuantity(cartId, productId)
+                .flatMap(current -> {
+                    // Only the difference moves between the shelf and the cart
+                    int delta = quantity - current;
+                    Mono<Void> stock = delta > 0
+                            ? products.reserveStock(productId, delta).flatMap(reserved -> reserved
+                            ? Mono.<Void>empty()
+                            : products.findById(productId).flatMap(p -> Mono.error(new RuntimeException(
+                            "Insufficient stock. Available: " + (current + p.getQuantity())))))
+                            : products.releaseStock(productId, -delta);
+                    return stock
+                            .then(db.sql("UPDATE cart SET quantity = :quantity, reserved_at = :now " +
+                                            "WHERE cart_id = :cartId AND product_id = :productId")
+                                    .bind("quantity", quantity)
+                                    .bind("now", LocalDateTime.now())
+                                    .bind("cartId", cartId)
+                                    .bind("productId", productId)
+                                    .then())
+                            .then(getCartItemById(cartId, productId));
+                })
+                .as(transactions::transactional);
+    }
+
+    public Mono<Void> deleteCartItem(String cartId, int productId) {
+        return lockedQuantity(cartId, productId)
+                .flatMap(current -> db.sql("DELETE FROM cart WHERE cart_id = :cartId AND product_id = :productId")
+                        .bind("cartId", cartId)
+                        .bind("productId", productId)
+                        .then()
+                        .then(products.releaseStock(productId, current)))
+                .as(transactions::transactional);
+    }
+
+    public Mono<Void> clearCart(String cartId) {
+        return db.sql("SELECT product_id, quantity FROM cart WHERE cart_id = :cartId FOR UPDATE")
+                .bind("cartId", cartId)
+                .map(row -> new int[]{row.get("product_id", Integer.class), row.get("quantity", Integer.class)})
+                .all()
+                .collectList()
+                .flatMap(lines -> db.sql("DELETE FROM cart WHERE cart_id = :cartId")
+                        .bind("cartId", cartId)
+                        .then()
+                        .thenMany(Flux.fromIterable(lines))
+                        .concatMap(line -> products.releaseStock(line[0], line[1]))
+                        .then())
+                .as(transactions::transactional);
+    }
+
+    public Mono<CartTotal> getCartTotal(String cartId) {
+        return db.sql("SELECT COALESCE(SUM(p.price * c.quantity), 0) AS total, COALESCE(SUM(c.quantity), 0) AS items " +
+                        "FROM cart c JOIN product p ON p.id = c.product_id WHERE c.cart_id = :cartId")
+                .bind("cartId", cartId)
+                .map(row -> new CartTotal(row.get("total", BigDecimal.class), row.get("items", Long.class)))
+                .one()
+                .defaultIfEmpty(CartTotal.EMPTY);
+    }
+
+    private Mono<Void> addLine(String cartId, int productId, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        return db.sql("UPDATE cart SET quantity = quantity + :quantity, reserved_at = :now " +
+                        "WHERE cart_id = :cartId AND product_id = :productId")
+                .bind("quantity", quantity)
+                .bind("now", now)
+                .bind("cartId", cartId)
+                .bind("productId", productId)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(rows -> rows > 0 ? Mono.empty() : db.sql(
+                                "INSERT INTO cart (id, cart_id, product_id, quantity, reserved_at) " +
+                                        "VALUES (NEXT VALUE FOR cart_seq, :cartId, :productId, :quantity, :now)")
+                        .bind("cartId", cartId)
+                        .bind("productId", productId)
+                        .bind("quantity", quantity)
+                        .bind("now", now)
+                        .then());
+    }
+
+    // Current line quantity, row-locked for the rest of the transaction; empty if there is no line
+    private Mono<Integer> lockedQuantity(String cartId, int productId) {
+        return db.sql("SELECT quantity FROM cart WHERE cart_id = :cartId AND product_id = :productId FOR UPDATE")
+                .bind("cartId", cartId)
+                .bind("productId", productId)
+                .map(row -> row.get("quantity", Integer.class))
+                .one();
+    }
+}
@@ -0,0 +1,71 @@
+package com.prav.ecom_proj.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC wiring for the reactive stack. It reaches the same H2 database that JPA creates and
+ * seeds. The connection factory is deliberately not a bean of its own (see EcomProjApplication),
+ * and transactions go through an explicit TransactionalOperator rather than @Transactional, so
+ * the JPA transaction manager stays the only one.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${ecom.r2dbc.url:r2dbc:h2:mem:///ecom}")
+    private String url;
+
+    @Value("${ecom.r2dbc.username:sa}")
+    private String username;
+
+    @Value("${ecom.r2dbc.password:}")
+    private String password;
+
+    @Value("${ecom.r2dbc.pool-size:20}")
+    private int poolSize;
+
+    private ConnectionPool pool;
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked; Netty keeps
+    // the reactive stack on a handful of event-loop threads
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactions(DatabaseClient databaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
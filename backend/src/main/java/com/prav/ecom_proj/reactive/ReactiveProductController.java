@@ -0,0 +1,137 @@
+package com.prav.ecom_proj.reactive;
+
+import com.prav.ecom_proj.index.ProductSearchIndex;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductFilter;
+import com.prav.ecom_proj.model.ProductListing;
+import com.prav.ecom_proj.model.ProductSummary;
+import org.reactivestreams.Publisher;
+import com.prav.ecom_proj.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Read side of the product API on WebFlux; same paths and payloads as ProductController
+@RestController
+@Profile("reactive")
+@CrossOrigin(exposedHeaders = {"ETag", "X-Total-Count"})
+@RequestMapping("/api")
+public class ReactiveProductController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    // Rows requested from the database at a time while streaming
+    private static final int STREAM_PREFETCH = 256;
+
+    @Autowired
+    private ReactiveProductRepository products;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductService service;
+
+    // WebFlux answers 304 from the ETag before the body is ever subscribed to. With any filter, page
+    // or sort parameter this is the faceted listing, as in ProductController; otherwise every product.
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Publisher<?>> getAllProducts(@RequestParam(required = false) List<String> category,
+                                                       @RequestParam(required = false) List<String> brand,
+                                                       @RequestParam(required = false) BigDecimal minPrice,
+                                                       @RequestParam(required = false) BigDecimal maxPrice,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedFrom,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedTo,
+                                                       @RequestParam(required = false) Boolean available,
+                                                       @RequestParam(required = false) Integer page,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestParam(required = false) String sort,
+                                                       @RequestParam(defaultValue = "asc") String direction){
+        boolean listing = category != null || brand != null || minPrice != null || maxPrice != null
+                || releasedFrom != null || releasedTo != null || available != null
+                || page != null || size != null || sort != null;
+        Publisher<?> body;
+        if(listing){
+            ProductService.ListingHits hits;
+            try{
+                hits = service.findListing(
+                        new ProductFilter(category, brand, minPrice, maxPrice, releasedFrom, releasedTo, available),
+                        page != null ? page : 0, size != null ? size : 24, sort != null ? sort : "id", direction);
+            }
+            catch(IllegalArgumentException e){
+                return ResponseEntity.badRequest().body(Mono.just(e.getMessage()));
+            }
+            body = summaries(hits.ids()).map(items -> new ProductListing(items, hits.total(), hits.facets()));
+        }
+        else{
+            body = products.findAll();
+        }
+        return ResponseEntity.ok()
+                .eTag(service.getCatalogETag())
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    // One product per line, written as rows arrive; a slow reader slows the query instead of filling the heap
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> streamAllProducts(){
+        return products.findAll().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping("/product/{id}")
+    public Mono<ResponseEntity<Product>> getProduct(@PathVariable int id){
+        return products.findById(id)
+                .map(product -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag("\"product-" + product.getId() + "-" + product.getVersion() + "\"")
+                            .cacheControl(CacheControl.noCache());
+                    if(product.getUpdatedAt() != null){
+                        response.lastModified(product.getUpdatedAt().getTime());
+                    }
+                    return response.body(product);
+                })
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/products/search")
+    public Mono<ResponseEntity<List<ProductSummary>>> searchProducts(@RequestParam String keyword,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "50") int size){
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword, Math.max(page, 0), limit);
+        return summaries(hits.ids()).map(list -> ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(hits.total()))
+                .body(list));
+    }
+
+    private Mono<List<ProductSummary>> summaries(List<Integer> ids) {
+        return ids.isEmpty()
+                ? Mono.just(List.of())
+                : products.findSummariesByIdIn(ids)
+                        .collectMap(ProductSummary::id)
+                        .map(byId -> ranked(ids, byId));
+    }
+
+    // Back into the index's order, dropping ids deleted since the index was read
+    private static List<ProductSummary> ranked(List<Integer> ids, Map<Integer, ProductSummary> byId) {
+        List<ProductSummary> ranked = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductSummary summary = byId.get(id);
+            if (summary != null) {
+                ranked.add(summary);
+            }
+        }
+        return ranked;
+    }
+}
@@ -0,0 +1,101 @@
+package com.prav.ecom_proj.reactive;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductSummary;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+
+// Non-blocking reads and stock updates against the product table
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+    static final String COLUMNS = "p.id, p.name, p.desc, p.brand, p.price, p.category, p.release_date, p.available, " +
+            "p.quantity, p.image_name, p.image_type, p.image_hash, p.image_size, p.version, p.updated_at";
+
+    @Autowired
+    private DatabaseClient db;
+
+    public Flux<Product> findAll() {
+        return db.sql("SELECT " + COLUMNS + " FROM product p ORDER BY p.id")
+                .map(ReactiveProductRepository::product)
+                .all();
+    }
+
+    public Mono<Product> findById(int id) {
+        return db.sql("SELECT " + COLUMNS + " FROM product p WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::product)
+                .one();
+    }
+
+    public Flux<ProductSummary> findSummariesByIdIn(Collection<Integer> ids) {
+        return db.sql("SELECT " + COLUMNS + " FROM product p WHERE p.id IN (:ids)")
+                .bind("ids", ids)
+                .map(row -> {
+                    Product p = product(row);
+                    return new ProductSummary(p.getId(), p.getName(), p.getBrand(), p.getPrice(), p.getCategory(),
+                            p.getRelease_date(), p.isAvailable(), p.getQuantity(), p.getImageHash());
+                })
+                .all();
+    }
+
+    // Same guarded decrement as ProductRepo.reserveStock: emits false when the stock can't cover it
+    public Mono<Boolean> reserveStock(int id, int quantity) {
+        return db.sql("UPDATE product SET quantity = quantity - :quantity, version = version + 1, " +
+                        "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND quantity >= :quantity")
+                .bind("id", id)
+                .bind("quantity", quantity)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1);
+    }
+
+    public Mono<Void> releaseStock(int id, int quantity) {
+        return db.sql("UPDATE product SET quantity = quantity + :quantity, version = version + 1, " +
+                        "updated_at = CURRENT_TIMESTAMP WHERE id = :id")
+                .bind("id", id)
+                .bind("quantity", quantity)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    static Product product(Readable row) {
+        Product product = new Product();
+        product.setId(row.get("id", Integer.class));
+        product.setName(row.get("name", String.class));
+        product.setDesc(row.get("desc", String.class));
+        product.setBrand(row.get("brand", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        product.setCategory(row.get("category", String.class));
+        product.setRelease_date(date(row.get("release_date", LocalDateTime.class)));
+        product.setAvailable(Boolean.TRUE.equals(row.get("available", Boolean.class)));
+        Integer quantity = row.get("quantity", Integer.class);
+        product.setQuantity(quantity != null ? quantity : 0);
+        product.setImageName(row.get("image_name", String.class));
+        product.setImageType(row.get("image_type", String.class));
+        product.setImageHash(row.get("image_hash", String.class));
+        product.setImageSize(row.get("image_size", Long.class));
+        Long version = row.get("version", Long.class);
+        product.setVersion(version != null ? version : 0);
+        product.setUpdatedAt(date(row.get("updated_at", LocalDateTime.class)));
+        return product;
+    }
+
+    // JDBC hands JPA these timestamps in the JVM's zone; read them the same way here
+    private static Date date(LocalDateTime value) {
+        return value != null ? Date.from(value.atZone(ZoneId.systemDefault()).toInstant()) : null;
+    }
+}
@@ -1,13 +1,33 @@
 package com.prav.ecom_proj.repo;
 
 import com.prav.ecom_proj.model.Cart;
-import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.CartTotal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 @Repository
 public interface CartRepo extends JpaRepository<Cart, Integer> {
-    Optional<Cart> findByProduct(Product product);
-}
\ No newline at end of file
+
+    // Each finder joins the product in, instead of one extra select per line for the eager @ManyToOne
+
+    @EntityGraph(attributePaths = "product")
+    List<Cart> findByCartId(String cartId);
+
+    @EntityGraph(attributePaths = "product")
+    List<Cart> findByCartIdIn(Collection<String> cartIds);
+
+    @EntityGraph(attributePaths = "product")
+    List<Cart> findByReservedAtBefore(Date cutoff);
+
+    // The cart's value at current prices, summed in the database
+    @Query("SELECT new com.prav.ecom_proj.model.CartTotal(" +
+            "COALESCE(SUM(c.product.price * c.quantity), 0), COALESCE(SUM(c.quantity), 0)) " +
+            "FROM Cart c WHERE c.cartId = :cartId")
+    CartTotal sumCart(String cartId);
+}
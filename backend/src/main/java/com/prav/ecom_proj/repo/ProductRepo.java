@@ -1,14 +1,25 @@
 package com.prav.ecom_proj.repo;
 
 import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductStock;
+import com.prav.ecom_proj.model.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepo extends JpaRepository<Product, Integer> {
+public interface ProductRepo extends JpaRepository<Product, Integer>, ProductRepoCustom {
+
+    // Query cache region, bounded in hibernate-cache.conf. Lookups only change with a product write,
+    // which Hibernate tracks by itself; stock moves don't touch them.
+    String LOOKUPS_REGION = "product-lookups";
 
     @Query("SELECT p FROM Product p WHERE " +
             "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -16,4 +27,40 @@ public interface ProductRepo extends JpaRepository<Product, Integer> {
             "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchProducts(String keyword);
-}
\ No newline at end of file
+
+    @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL ORDER BY p.category")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = LOOKUPS_REGION)})
+    List<String> findCategories();
+
+    @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.brand IS NOT NULL ORDER BY p.brand")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = LOOKUPS_REGION)})
+    List<String> findBrands();
+
+    // A full scan would only churn the second-level cache, so it neither reads nor fills it
+    @Query("SELECT p FROM Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    Stream<Product> streamAll();
+
+    // The given ids that still name a product
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Integer> findExistingIds(Collection<Integer> ids);
+
+    // Listing rows selected column by column, so nothing enters the persistence context; unordered,
+    // deleted ids left out
+    @Query("SELECT new com.prav.ecom_proj.model.ProductSummary(p.id, p.name, p.brand, p.price, p.category, " +
+            "p.release_date, p.available, p.quantity, p.imageHash) FROM Product p WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesById(Collection<Integer> ids);
+
+    @Query("SELECT new com.prav.ecom_proj.model.ProductStock(p.quantity, p.version, p.updatedAt) " +
+            "FROM Product p WHERE p.id = :id")
+    ProductStock findStockById(int id);
+
+    @Query("SELECT p.imageHash FROM Product p WHERE p.id = :id")
+    String findImageHashById(int id);
+
+    boolean existsByImageHash(String imageHash);
+}
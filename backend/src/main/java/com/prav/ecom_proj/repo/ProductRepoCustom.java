@@ -0,0 +1,22 @@
+package com.prav.ecom_proj.repo;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepoCustom {
+
+    // Keyset page ordered by (sortKey, id); afterValue/afterId are null for the first page
+    List<ProductSummary> findSummariesAfter(ProductSortKey sortKey, boolean descending,
+                                            Object afterValue, Integer afterId, int limit);
+
+    // Products by id, served from the second-level cache where possible; missing ids are left out
+    List<Product> findAllCachedById(Collection<Integer> ids);
+
+    // Conditional decrement: updates nothing (returns 0) when the stock can't cover the request
+    int reserveStock(int id, int quantity);
+
+    int releaseStock(int id, int quantity);
+}
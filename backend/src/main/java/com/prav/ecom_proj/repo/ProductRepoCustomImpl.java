@@ -0,0 +1,121 @@
+package com.prav.ecom_proj.repo;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ProductRepoCustomImpl implements ProductRepoCustom {
+
+    // Declared by stock updates instead of the product table; see moveStock
+    private static final String STOCK_SPACE = "product_stock";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<ProductSummary> findSummariesAfter(ProductSortKey sortKey, boolean descending,
+                                                   Object afterValue, Integer afterId, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> p = query.from(Product.class);
+
+        query.select(cb.construct(ProductSummary.class,
+                p.get("id"), p.get("name"), p.get("brand"), p.get("price"),
+                p.get("category"), p.get("release_date"), p.get("available"), p.get("quantity"),
+                p.get("imageHash")));
+
+        Expression<Integer> id = p.get("id");
+        Expression<Comparable> key = sortKey == ProductSortKey.ID
+                ? (Expression) id
+                : cb.coalesce(p.get(sortKey.getAttribute()), (Comparable) sortKey.nullValue());
+
+        // Seek past the last row of the previous page: (key, id) > (afterKey, afterId)
+        if (afterId != null) {
+            Predicate seek;
+            if (sortKey == ProductSortKey.ID) {
+                seek = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+            } else {
+                Comparable value = (Comparable) afterValue;
+                Predicate pastKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+                Predicate pastId = descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+                seek = cb.or(pastKey, cb.and(cb.equal(key, value), pastId));
+            }
+            query.where(seek);
+        }
+
+        if (sortKey == ProductSortKey.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key),
+                    descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        return em.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Product> findAllCachedById(Collection<Integer> ids) {
+        // Ids found in the second-level cache are not queried at all
+        return em.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids));
+    }
+
+    @Override
+    public int reserveStock(int id, int quantity) {
+        return moveStock("UPDATE product SET quantity = quantity - :quantity, version = version + 1, " +
+                "updated_at = CURRENT_TIMESTAMP " +
+                "WHERE id = :id AND quantity >= :quantity", id, quantity);
+    }
+
+    @Override
+    public int releaseStock(int id, int quantity) {
+        return moveStock("UPDATE product SET quantity = quantity + :quantity, version = version + 1, " +
+                "updated_at = CURRENT_TIMESTAMP WHERE id = :id", id, quantity);
+    }
+
+    // As bulk JPQL these would make Hibernate drop the whole Product cache region on every stock move.
+    // Native updates synchronized on a space of their own leave it alone; only this product is evicted,
+    // now and again after commit so nobody re-caches the old row. The caller's persistence context is
+    // left alone too: a copy loaded there is stale, but the version bump makes writing it back fail.
+    private int moveStock(String sql, int id, int quantity) {
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        int rows = query.addSynchronizedQuerySpace(STOCK_SPACE)
+                .setParameter("id", id)
+                .setParameter("quantity", quantity)
+                .executeUpdate();
+        if (rows > 0) {
+            evictStock(id);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictStock(id);
+                    }
+                });
+            }
+        }
+        return rows;
+    }
+
+    private void evictStock(int id) {
+        em.getEntityManagerFactory().getCache().evict(Product.class, id);
+    }
+}
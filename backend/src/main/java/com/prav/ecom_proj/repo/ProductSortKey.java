@@ -0,0 +1,50 @@
+package com.prav.ecom_proj.repo;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+public enum ProductSortKey {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    RELEASE_DATE("release_date");
+
+    private final String attribute;
+
+    ProductSortKey(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    // Value that null columns sort as, so the seek predicate and ORDER BY agree
+    Object nullValue() {
+        return switch (this) {
+            case ID -> 0;
+            case NAME -> "";
+            case PRICE -> BigDecimal.ZERO;
+            case RELEASE_DATE -> Date.valueOf(LocalDate.EPOCH);
+        };
+    }
+
+    public Object parse(String value) {
+        return switch (this) {
+            case ID -> Integer.valueOf(value);
+            case NAME -> value;
+            case PRICE -> new BigDecimal(value);
+            case RELEASE_DATE -> Date.valueOf(value);
+        };
+    }
+
+    public static ProductSortKey from(String name) {
+        for (ProductSortKey key : values()) {
+            if (key.attribute.equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + name);
+    }
+}
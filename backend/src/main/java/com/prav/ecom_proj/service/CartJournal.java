@@ -0,0 +1,175 @@
+package com.prav.ecom_proj.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of cart changes that have not reached the database yet, split into lanes so
+ * carts in different lanes never wait on each other's writes. Each lane writes to its own current
+ * segment; a flush rotates a lane to a new segment and deletes the old ones once their changes are
+ * committed. Whatever segments survive a crash are replayed on startup.
+ * Callers serialize access to each lane; CartStore appends under the cart's stripe lock.
+ */
+@Component
+public class CartJournal {
+
+    private static final String PREFIX = "cart-";
+    private static final String SUFFIX = ".log";
+
+    @Value("${ecom.cart.journal.dir:data/cart-journal}")
+    private String dir;
+
+    // fsync every append; off by default, which still survives a process crash but not a power loss
+    @Value("${ecom.cart.journal.fsync:false}")
+    private boolean fsync;
+
+    private Path root;
+    private final Map<Integer, Long> lastSequences = new HashMap<>();
+    private final ConcurrentHashMap<Integer, Lane> lanes = new ConcurrentHashMap<>();
+
+    public record Entry(String cartId, int productId, int quantity) {
+    }
+
+    public final class Lane {
+        private final int index;
+        private long sequence;
+        private FileChannel channel;
+        private BufferedWriter writer;
+
+        private Lane(int index, long sequence) {
+            this.index = index;
+            this.sequence = sequence;
+        }
+
+        public void append(String cartId, int productId, int quantity) {
+            try {
+                if (writer == null) {
+                    open();
+                }
+                writer.write(cartId + '\t' + productId + '\t' + quantity + '\n');
+                writer.flush();
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal cart change", e);
+            }
+        }
+
+        // Closes the current segment so new appends start a fresh one; returns the lane's closed segments
+        public List<Path> rotate() throws IOException {
+            close();
+            return segments().stream().filter(segment -> laneOf(segment) == index).toList();
+        }
+
+        private void open() throws IOException {
+            Path segment = root.resolve(PREFIX + index + '-' + String.format("%012d", ++sequence) + SUFFIX);
+            channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        }
+
+        private void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        for (Path segment : segments()) {
+            lastSequences.merge(laneOf(segment), sequenceOf(segment), Math::max);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (Lane lane : lanes.values()) {
+            lane.close();
+        }
+    }
+
+    public Lane lane(int index) {
+        return lanes.computeIfAbsent(index, i -> new Lane(i, lastSequences.getOrDefault(i, 0L)));
+    }
+
+    // Closes every lane and returns all closed segments; for replay, before anything is appended
+    public List<Path> rotate() throws IOException {
+        close();
+        return segments();
+    }
+
+    public void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    // Every entry from closed segments, oldest first within each lane
+    public List<Entry> read(List<Path> segments) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments) {
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                // A torn final line from a crash mid-write is simply skipped
+                if (parts.length == 3) {
+                    try {
+                        entries.add(new Entry(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+                    } catch (NumberFormatException e) {
+                        // torn as well
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingInt(CartJournal::laneOf).thenComparingLong(CartJournal::sequenceOf))
+                    .toList();
+        }
+    }
+
+    // cart-<lane>-<sequence>.log; the older single-lane cart-<sequence>.log counts as lane 0
+    private static String[] nameParts(Path segment) {
+        String name = segment.getFileName().toString();
+        return name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split("-");
+    }
+
+    private static int laneOf(Path segment) {
+        String[] parts = nameParts(segment);
+        return parts.length == 2 ? Integer.parseInt(parts[0]) : 0;
+    }
+
+    private static long sequenceOf(Path segment) {
+        String[] parts = nameParts(segment);
+        return Long.parseLong(parts[parts.length - 1]);
+    }
+}
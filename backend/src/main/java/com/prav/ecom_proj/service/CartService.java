@@ -1,105 +1,167 @@
 package com.prav.ecom_proj.service;
 
-import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.model.CartItem;
+import com.prav.ecom_proj.model.CartTotal;
 import com.prav.ecom_proj.model.Product;
-import com.prav.ecom_proj.repo.CartRepo;
-import com.prav.ecom_proj.repo.ProductRepo;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
+@Timed("ecom.service")
 public class CartService {
 
     @Autowired
-    private CartRepo cartRepo;
+    private CartStore cartStore;
 
     @Autowired
-    private ProductRepo productRepo;
+    private ProductService productService;
 
-    public List<Cart> getAllCartItems() {
-        return cartRepo.findAll();
+    @Autowired
+    private StockService stockService;
+
+    public List<CartItem> getAllCartItems(String cartId) {
+        return cartStore.withCart(cartId, state -> {
+            refreshIfStale(cartId, state);
+            List<CartItem> items = new ArrayList<>(state.lines().size());
+            state.lines().forEach((productId, line) -> items.add(new CartItem(productId, line.product(), line.quantity())));
+            return items;
+        });
     }
 
-    public Cart getCartItemById(int id) {
-        return cartRepo.findById(id).orElse(null);
+    public CartItem getCartItemById(String cartId, int productId) {
+        return cartStore.withCart(cartId, state -> {
+            refreshIfStale(cartId, state);
+            CartStore.Line line = state.lines().get(productId);
+            return line != null ? new CartItem(productId, line.product(), line.quantity()) : null;
+        });
     }
 
-    public Cart addToCart(int productId, int quantity) {
-        Optional<Product> productOpt = productRepo.findById(productId);
+    public CartItem addToCart(String cartId, int productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be greater than 0");
+        }
+
+        Product product = productService.getProductById(productId);
 
-        if (productOpt.isEmpty()) {
+        if (product.getId() == 0) {
             throw new RuntimeException("Product not found");
         }
 
-        Product product = productOpt.get();
-
         if (!product.isAvailable()) {
             throw new RuntimeException("Product is not available");
         }
 
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-        }
-
-        // Check if product already exists in cart
-        Optional<Cart> existingCart = cartRepo.findByProduct(product);
-
-        if (existingCart.isPresent()) {
-            Cart cart = existingCart.get();
-            int newQuantity = cart.getQuantity() + quantity;
-
-            if (product.getQuantity() < newQuantity) {
-                throw new RuntimeException("Insufficient stock for requested quantity");
+        return cartStore.withCart(cartId, state -> {
+            // The reservation itself is the stock check; it fails instead of overselling
+            if (!stockService.reserve(productId, quantity)) {
+                throw new RuntimeException("Insufficient stock. Available: " + productService.getProductById(productId).getQuantity());
             }
 
-            cart.setQuantity(newQuantity);
-            return cartRepo.save(cart);
-        } else {
-            Cart cart = new Cart();
-            cart.setProduct(product);
-            cart.setQuantity(quantity);
-            return cartRepo.save(cart);
-        }
+            CartStore.Line existing = state.lines().get(productId);
+            int newQuantity = (existing != null ? existing.quantity() : 0) + quantity;
+            try {
+                cartStore.setQuantity(cartId, state, product, newQuantity);
+            } catch (RuntimeException e) {
+                // Not journaled, so the cart is unchanged and the stock goes back
+                stockService.release(productId, quantity);
+                throw e;
+            }
+            return new CartItem(productId, product, newQuantity);
+        });
     }
 
-    public Cart updateCartQuantity(int cartId, int quantity) {
-        Optional<Cart> cartOpt = cartRepo.findById(cartId);
-
-        if (cartOpt.isEmpty()) {
-            return null;
-        }
-
-        Cart cart = cartOpt.get();
-        Product product = cart.getProduct();
-
+    public CartItem updateCartQuantity(String cartId, int productId, int quantity) {
         if (quantity <= 0) {
             throw new RuntimeException("Quantity must be greater than 0");
         }
 
-        if (product.getQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + product.getQuantity());
-        }
+        return cartStore.withCart(cartId, state -> {
+            CartStore.Line line = state.lines().get(productId);
+            if (line == null) {
+                return null;
+            }
 
-        cart.setQuantity(quantity);
-        return cartRepo.save(cart);
+            // Only the difference moves between the shelf and the cart
+            int delta = quantity - line.quantity();
+            if (delta > 0 && !stockService.reserve(productId, delta)) {
+                throw new RuntimeException("Insufficient stock. Available: "
+                        + (line.quantity() + productService.getProductById(productId).getQuantity()));
+            }
+
+            Product product = line.product();
+            try {
+                cartStore.setQuantity(cartId, state, product, quantity);
+            } catch (RuntimeException e) {
+                if (delta > 0) {
+                    stockService.release(productId, delta);
+                }
+                throw e;
+            }
+            if (delta < 0) {
+                stockService.release(productId, -delta);
+            }
+            return new CartItem(productId, product, quantity);
+        });
     }
 
-    public void deleteCartItem(int id) {
-        cartRepo.deleteById(id);
+    public void deleteCartItem(String cartId, int productId) {
+        cartStore.withCart(cartId, state -> {
+            CartStore.Line line = state.lines().get(productId);
+            if (line != null) {
+                int reserved = line.quantity();
+                cartStore.setQuantity(cartId, state, line.product(), 0);
+                stockService.release(productId, reserved);
+            }
+            return null;
+        });
     }
 
-    public void clearCart() {
-        cartRepo.deleteAll();
+    public void clearCart(String cartId) {
+        cartStore.withCart(cartId, state -> {
+            List<CartStore.Line> lines = List.copyOf(state.lines().values());
+            cartStore.clear(cartId, state);
+            for (CartStore.Line line : lines) {
+                stockService.release(line.product().getId(), line.quantity());
+            }
+            return null;
+        });
+    }
+
+    // O(1) read of the cart's running total; only rebuilt from its lines after a product change
+    public CartTotal getCartTotal(String cartId) {
+        return cartStore.withCart(cartId, state -> {
+            refreshIfStale(cartId, state);
+            return state.totals();
+        });
+    }
+
+    // Price or product removal invalidates running totals; each cart catches up on its next read
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        cartStore.productsChanged();
     }
 
-    public BigDecimal getCartTotal() {
-        List<Cart> cartItems = cartRepo.findAll();
-        return cartItems.stream()
-                .map(Cart::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void refreshIfStale(String cartId, CartStore.CartState state) {
+        if (!cartStore.isStale(state)) {
+            return;
+        }
+        // One query for every line rather than a lookup per line
+        Map<Integer, Product> current = productService.getProductsById(state.lines().keySet());
+        for (Integer productId : List.copyOf(state.lines().keySet())) {
+            CartStore.Line line = state.lines().get(productId);
+            Product product = current.get(productId);
+            if (product == null) {
+                cartStore.setQuantity(cartId, state, line.product(), 0);
+            } else {
+                cartStore.refreshProduct(state, product);
+            }
+        }
+        cartStore.reconcile(cartId, state);
     }
-}
\ No newline at end of file
+}
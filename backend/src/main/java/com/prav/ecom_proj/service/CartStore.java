@@ -0,0 +1,558 @@
+package com.prav.ecom_proj.service;
+
+import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.model.CartTotal;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.CartRepo;
+import com.prav.ecom_proj.repo.ProductRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory home of every active cart. All /api/cart reads and writes are served from here.
+ * Carts are guarded by a fixed set of lock stripes chosen by cart id, so unrelated carts never contend.
+ * Each change is appended to the stripe's CartJournal lane and queued on the stripe, both under its
+ * lock; a scheduled flush writes the queued changes to the cart table in batches and then drops the
+ * journal segments it covered. A cart
+ * that cannot be written stays queued and in the journal; lines for products that no longer exist
+ * are dropped, counted in ecom.cart.journal.dropped.
+ * Cart lines hold reserved stock; carts left idle past the reservation TTL are emptied and
+ * their stock handed back, whether they are still in memory or only in the table.
+ */
+@Component
+public class CartStore implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStore.class);
+
+    // Journal marker for "remove every line of this cart"
+    private static final int ALL_PRODUCTS = -1;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private CartJournal journal;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ecom.cart.reservation-ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    @Value("${ecom.cart.stripes:64}")
+    private int stripeCount;
+
+    @Value("${ecom.cart.flush-batch-size:500}")
+    private int batchSize;
+
+    @Value("${ecom.cart.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    private Stripe[] stripes;
+    private final ConcurrentHashMap<String, CartState> carts = new ConcurrentHashMap<>();
+
+    // One flush or recovery at a time, so only one of them rotates and deletes journal segments
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Bumped when product data changes, telling carts their cached prices may be stale
+    private final AtomicLong productEpoch = new AtomicLong();
+
+    public static final class CartState {
+        final Map<Integer, Line> lines = new LinkedHashMap<>();
+        CartTotal totals = CartTotal.EMPTY;
+        long epoch;
+        volatile long lastAccess;
+
+        public Map<Integer, Line> lines() {
+            return lines;
+        }
+
+        public CartTotal totals() {
+            return totals;
+        }
+    }
+
+    public static final class Line {
+        Product product;
+        int quantity;
+
+        Line(Product product, int quantity) {
+            this.product = product;
+            this.quantity = quantity;
+        }
+
+        public Product product() {
+            return product;
+        }
+
+        public int quantity() {
+            return quantity;
+        }
+    }
+
+    // A ReentrantLock rather than synchronized: journal appends do file I/O while holding it, which
+    // would pin a virtual thread to its carrier
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final CartJournal.Lane journal;
+        // Changes not yet in the database, coalesced per cart
+        Map<String, PendingCart> pending = new HashMap<>();
+
+        Stripe(CartJournal.Lane journal) {
+            this.journal = journal;
+        }
+    }
+
+    private static final class PendingCart {
+        boolean cleared;
+        final Map<Integer, Integer> lines = new LinkedHashMap<>();
+    }
+
+    @PostConstruct
+    public void init() {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(journal.lane(i));
+        }
+    }
+
+    // Runs once every bean (including schema and data initialization) is ready, before the web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay cart journal", e);
+        }
+    }
+
+    /**
+     * Runs the action on the cart while holding its stripe lock, loading it from the database
+     * on first use. The action may read and change the state through the methods below.
+     */
+    public <T> T withCart(String cartId, Function<CartState, T> action) {
+        ReentrantLock lock = stripeFor(cartId).lock;
+        lock.lock();
+        try {
+            CartState state = carts.computeIfAbsent(cartId, this::load);
+            state.lastAccess = System.nanoTime();
+            return action.apply(state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers must hold the cart's stripe, i.e. be inside withCart. Journaled first: if that
+    // fails the cart is left as it was and the exception goes back to the caller.
+    public void setQuantity(String cartId, CartState state, Product product, int quantity) {
+        record(cartId, product.getId(), Math.max(quantity, 0));
+        Line line = state.lines.get(product.getId());
+        int oldQuantity = line != null ? line.quantity : 0;
+        BigDecimal oldPrice = line != null ? priceOf(line.product) : BigDecimal.ZERO;
+        if (quantity <= 0) {
+            state.lines.remove(product.getId());
+        } else if (line == null) {
+            state.lines.put(product.getId(), new Line(product, quantity));
+        } else {
+            line.product = product;
+            line.quantity = quantity;
+        }
+        state.totals = state.totals.plus(
+                priceOf(product).multiply(BigDecimal.valueOf(Math.max(quantity, 0)))
+                        .subtract(oldPrice.multiply(BigDecimal.valueOf(oldQuantity))),
+                Math.max(quantity, 0) - oldQuantity);
+    }
+
+    public void clear(String cartId, CartState state) {
+        record(cartId, ALL_PRODUCTS, 0);
+        state.lines.clear();
+        state.totals = CartTotal.EMPTY;
+    }
+
+    // Swaps in a fresh copy of a line's product; reconcile the total once every line is refreshed
+    public void refreshProduct(CartState state, Product product) {
+        Line line = state.lines.get(product.getId());
+        if (line != null) {
+            line.product = product;
+        }
+    }
+
+    // True when the cart's running total predates the last product change
+    public boolean isStale(CartState state) {
+        return state.epoch != productEpoch.get();
+    }
+
+    /**
+     * Rebuilds the running total after the lines' products were refreshed. When the table holds
+     * exactly this cart (nothing queued, no flush under way) the total is a SQL SUM over its rows;
+     * a sum that disagrees with the lines is counted in ecom.cart.total.mismatch. Otherwise the
+     * table lags behind, and the total is summed from the lines. Callers must hold the cart's stripe.
+     */
+    public void reconcile(String cartId, CartState state) {
+        CartTotal fromLines = sumLines(state);
+        state.totals = fromLines;
+        state.epoch = productEpoch.get();
+        // Never waits: a flush takes the stripes after this lock, so blocking here could deadlock
+        if (stripeFor(cartId).pending.containsKey(cartId) || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            CartTotal fromTable = cartRepo.sumCart(cartId);
+            if (fromTable.itemCount() != fromLines.itemCount() || fromTable.total().compareTo(fromLines.total()) != 0) {
+                meterRegistry.counter("ecom.cart.total.mismatch").increment();
+                log.warn("Cart {} total {} disagrees with its table rows {}, taking the table's", cartId, fromLines, fromTable);
+            }
+            state.totals = fromTable;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static CartTotal sumLines(CartState state) {
+        CartTotal totals = CartTotal.EMPTY;
+        for (Line line : state.lines.values()) {
+            totals = totals.plus(priceOf(line.product).multiply(BigDecimal.valueOf(line.quantity)), line.quantity);
+        }
+        return totals;
+    }
+
+    public void productsChanged() {
+        productEpoch.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${ecom.cart.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+        evictIdle();
+    }
+
+    private void flushPending() {
+        Map<String, PendingCart> drained = new HashMap<>();
+        List<Path> segments = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                drained.putAll(stripe.pending);
+                stripe.pending = new HashMap<>();
+                segments.addAll(stripe.journal.rotate());
+            } catch (IOException e) {
+                log.warn("Could not rotate cart journal", e);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Map<String, PendingCart> failed = apply(drained);
+        if (!failed.isEmpty()) {
+            log.warn("Cart flush failed for {} of {} carts, will retry them", failed.size(), drained.size());
+            requeue(failed);
+        }
+        try {
+            journal.delete(segments);
+        } catch (IOException e) {
+            log.warn("Could not delete flushed cart journal segments", e);
+        }
+    }
+
+    // Callers must hold the cart's stripe
+    private void record(String cartId, int productId, int quantity) {
+        Stripe stripe = stripeFor(cartId);
+        stripe.journal.append(cartId, productId, quantity);
+        PendingCart cart = stripe.pending.computeIfAbsent(cartId, id -> new PendingCart());
+        if (productId == ALL_PRODUCTS) {
+            cart.cleared = true;
+            cart.lines.clear();
+        } else {
+            cart.lines.put(productId, quantity);
+        }
+    }
+
+    /**
+     * Puts failed carts back underneath anything that changed since they were drained, and journals
+     * the result again in their lane, so the segments they came from can be deleted.
+     */
+    private void requeue(Map<String, PendingCart> failed) {
+        for (Map.Entry<String, PendingCart> entry : failed.entrySet()) {
+            Stripe stripe = stripeFor(entry.getKey());
+            stripe.lock.lock();
+            try {
+                PendingCart newer = stripe.pending.get(entry.getKey());
+                if (newer != null && newer.cleared) {
+                    // Already superseded, and journaled as such
+                    continue;
+                }
+                PendingCart merged = entry.getValue();
+                if (newer != null) {
+                    merged.lines.putAll(newer.lines);
+                }
+                stripe.pending.put(entry.getKey(), merged);
+                if (merged.cleared) {
+                    stripe.journal.append(entry.getKey(), ALL_PRODUCTS, 0);
+                }
+                merged.lines.forEach((productId, quantity) -> stripe.journal.append(entry.getKey(), productId, quantity));
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Returns the carts that could not be written
+    private Map<String, PendingCart> apply(Map<String, PendingCart> changes) {
+        Map<String, PendingCart> failed = new LinkedHashMap<>();
+        List<String> cartIds = new ArrayList<>(changes.keySet());
+        for (int from = 0; from < cartIds.size(); from += batchSize) {
+            List<String> batch = cartIds.subList(from, Math.min(from + batchSize, cartIds.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyBatch(batch, changes));
+            } catch (RuntimeException e) {
+                // One cart at a time, so a bad cart doesn't hold back the rest of its batch
+                log.warn("Cart flush batch of {} carts failed, retrying them one by one", batch.size(), e);
+                for (String cartId : batch) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> applyBatch(List.of(cartId), changes));
+                    } catch (RuntimeException cartFailure) {
+                        log.warn("Could not flush cart {}", cartId, cartFailure);
+                        failed.put(cartId, changes.get(cartId));
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    private void applyBatch(List<String> cartIds, Map<String, PendingCart> changes) {
+        dropMissingProducts(cartIds, changes);
+        Map<String, Map<Integer, Cart>> existing = new HashMap<>();
+        for (Cart row : cartRepo.findByCartIdIn(cartIds)) {
+            existing.computeIfAbsent(row.getCartId(), id -> new HashMap<>()).put(row.getProduct().getId(), row);
+        }
+
+        Date now = new Date();
+        List<Cart> toSave = new ArrayList<>();
+        List<Cart> toDelete = new ArrayList<>();
+        for (String cartId : cartIds) {
+            PendingCart change = changes.get(cartId);
+            Map<Integer, Cart> rows = existing.getOrDefault(cartId, new HashMap<>());
+            if (change.cleared) {
+                toDelete.addAll(rows.values());
+                rows.clear();
+            }
+            for (Map.Entry<Integer, Integer> line : change.lines.entrySet()) {
+                Cart row = rows.get(line.getKey());
+                if (line.getValue() <= 0) {
+                    if (row != null && !toDelete.contains(row)) {
+                        toDelete.add(row);
+                    }
+                } else if (row != null) {
+                    row.setQuantity(line.getValue());
+                    row.setReservedAt(now);
+                    toSave.add(row);
+                } else {
+                    Cart cart = new Cart();
+                    cart.setCartId(cartId);
+                    cart.setProduct(productRepo.getReferenceById(line.getKey()));
+                    cart.setQuantity(line.getValue());
+                    cart.setReservedAt(now);
+                    toSave.add(cart);
+                }
+            }
+        }
+        // Deletes go first so a cleared-then-re-added line doesn't trip the unique key
+        cartRepo.deleteAllInBatch(toDelete);
+        cartRepo.saveAll(toSave);
+    }
+
+    // Lines can outlive their product, e.g. when it is deleted before the line is flushed
+    private void dropMissingProducts(List<String> cartIds, Map<String, PendingCart> changes) {
+        Set<Integer> productIds = new HashSet<>();
+        for (String cartId : cartIds) {
+            changes.get(cartId).lines.forEach((productId, quantity) -> {
+                if (quantity > 0) {
+                    productIds.add(productId);
+                }
+            });
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productIds.removeAll(productRepo.findExistingIds(productIds));
+        if (productIds.isEmpty()) {
+            return;
+        }
+        int dropped = 0;
+        for (String cartId : cartIds) {
+            Map<Integer, Integer> lines = changes.get(cartId).lines;
+            int before = lines.size();
+            lines.entrySet().removeIf(line -> line.getValue() > 0 && productIds.contains(line.getKey()));
+            dropped += before - lines.size();
+        }
+        meterRegistry.counter("ecom.cart.journal.dropped").increment(dropped);
+        log.warn("Dropped {} cart lines for products that no longer exist: {}", dropped, productIds);
+    }
+
+    // Applies journal segments left behind by a crash before anything is served
+    void recover() throws IOException {
+        flushLock.lock();
+        try {
+            replay();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        List<Path> segments = journal.rotate();
+        if (segments.isEmpty()) {
+            return;
+        }
+        Map<String, PendingCart> replay = new LinkedHashMap<>();
+        for (CartJournal.Entry entry : journal.read(segments)) {
+            PendingCart cart = replay.computeIfAbsent(entry.cartId(), id -> new PendingCart());
+            if (entry.productId() == ALL_PRODUCTS) {
+                cart.cleared = true;
+                cart.lines.clear();
+            } else {
+                cart.lines.put(entry.productId(), entry.quantity());
+            }
+        }
+        Map<String, PendingCart> failed = apply(replay);
+        // What could not be written yet is journaled again and goes out with the next flush
+        requeue(failed);
+        journal.delete(segments);
+        log.info("Recovered {} carts from {} journal segments", replay.size() - failed.size(), segments.size());
+    }
+
+    private CartState load(String cartId) {
+        CartState state = new CartState();
+        for (Cart row : cartRepo.findByCartId(cartId)) {
+            state.lines.put(row.getProduct().getId(), new Line(row.getProduct(), row.getQuantity()));
+        }
+        // Straight from the rows, so summing them again in SQL would tell nothing new
+        state.totals = sumLines(state);
+        state.epoch = productEpoch.get();
+        return state;
+    }
+
+    @Scheduled(fixedDelayString = "${ecom.cart.reservation-sweep-ms:60000}")
+    public void expireReservations() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(reservationTtlMinutes);
+        for (Map.Entry<String, CartState> entry : carts.entrySet()) {
+            CartState state = entry.getValue();
+            if (state.lastAccess - cutoff >= 0 || state.lines.isEmpty()) {
+                continue;
+            }
+            ReentrantLock lock = stripeFor(entry.getKey()).lock;
+            lock.lock();
+            try {
+                if (state.lastAccess - cutoff < 0 && carts.get(entry.getKey()) == state) {
+                    // Clear first: a crash in between may strand stock, but can never hand it out twice
+                    List<Line> expired = List.copyOf(state.lines.values());
+                    clear(entry.getKey(), state);
+                    for (Line line : expired) {
+                        stockService.release(line.product.getId(), line.quantity);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Carts that are only in the table: evicted ones, or ones not touched since a restart
+        Date dbCutoff = new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(reservationTtlMinutes));
+        Map<String, List<Cart>> stale = new HashMap<>();
+        for (Cart row : cartRepo.findByReservedAtBefore(dbCutoff)) {
+            stale.computeIfAbsent(row.getCartId(), id -> new ArrayList<>()).add(row);
+        }
+        for (Map.Entry<String, List<Cart>> entry : stale.entrySet()) {
+            ReentrantLock lock = stripeFor(entry.getKey()).lock;
+            lock.lock();
+            try {
+                if (carts.containsKey(entry.getKey())) {
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Cart row : entry.getValue()) {
+                        stockService.release(row.getProduct().getId(), row.getQuantity());
+                    }
+                    cartRepo.deleteAllInBatch(entry.getValue());
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Drops carts that are idle, empty and fully flushed; they reload from the table on next use
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        for (Map.Entry<String, CartState> entry : carts.entrySet()) {
+            if (entry.getValue().lastAccess - cutoff >= 0) {
+                continue;
+            }
+            ReentrantLock lock = stripeFor(entry.getKey()).lock;
+            lock.lock();
+            try {
+                if (entry.getValue().lastAccess - cutoff < 0 && entry.getValue().lines.isEmpty()
+                        && !stripeFor(entry.getKey()).pending.containsKey(entry.getKey())) {
+                    carts.remove(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Stripe stripeFor(String cartId) {
+        return stripes[Math.floorMod(cartId.hashCode(), stripes.length)];
+    }
+
+    private static BigDecimal priceOf(Product product) {
+        return product != null && product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,211 @@
+package com.prav.ecom_proj.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the resized variants of uploaded images on a small bounded worker pool, off the
+ * request thread. Until a variant exists the original is served in its place, and a request for
+ * a missing variant queues it again, so a full queue or a restart only delays variants.
+ */
+@Service
+public class ImageProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessor.class);
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Value("${ecom.images.workers:2}")
+    private int workers;
+
+    @Value("${ecom.images.queue-capacity:256}")
+    private int queueCapacity;
+
+    // Anything bigger is left as-is rather than decoded; keeps the workers safe from decompression bombs
+    @Value("${ecom.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${ecom.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // Originals we could not decode; not retried until the next restart
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        // Decode and encode in memory; the default disk cache only adds temp-file churn
+        ImageIO.setUseCache(false);
+        // Resizing is CPU-bound, so the pool stays bounded in either thread mode
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("image-worker-", 1).factory()
+                : Thread.ofPlatform().name("image-worker-", 1).daemon().factory();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Queues variant generation for an original; duplicate and overflow requests are dropped
+    public void submit(String hash) {
+        if (hash == null || unreadable.contains(hash) || !inFlight.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(hash);
+                } catch (Exception e) {
+                    log.warn("Could not resize image {}", hash, e);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+            log.debug("Image queue full, {} will be resized on a later request", hash);
+        }
+    }
+
+    private void process(String hash) throws IOException {
+        Path original = imageStore.originalPath(hash);
+        if (!Files.isReadable(original)) {
+            return;
+        }
+        List<ImageVariant> missing = new ArrayList<>();
+        int largest = 0;
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (imageStore.loadVariant(hash, variant) == null) {
+                missing.add(variant);
+                largest = Math.max(largest, variant.getMaxDimension());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        BufferedImage source = decode(original, largest);
+        if (source == null) {
+            unreadable.add(hash);
+            log.warn("Image {} can't be resized; its original will be served instead", hash);
+            return;
+        }
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        for (ImageVariant variant : missing) {
+            BufferedImage scaled = scale(source, variant.getMaxDimension(), alpha);
+            imageStore.storeVariant(hash, variant, format, out -> write(scaled, format, out));
+        }
+    }
+
+    // Subsamples while decoding so a huge original never lands on the heap at full size;
+    // null when the format is unknown or the image is over the pixel limit
+    private BufferedImage decode(Path file, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Image {} is {}x{}, too large to resize", file.getFileName(), width, height);
+                    return null;
+                }
+                // Keep at least twice the target resolution so the final downscale can smooth it
+                int step = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Repeated bilinear halving down to the target: close to area-averaging quality for far less work
+    private static BufferedImage scale(BufferedImage source, int maxDimension, boolean alpha) {
+        double factor = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * factor));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(width / 2, targetWidth);
+            height = Math.max(height / 2, targetHeight);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, OutputStream out) throws IOException {
+        if (format.equals("png")) {
+            ImageIO.write(image, "png", out);
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
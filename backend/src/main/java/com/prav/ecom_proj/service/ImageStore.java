@@ -0,0 +1,217 @@
+package com.prav.ecom_proj.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Content-addressed image storage on local disk.
+ * Files are named by the SHA-256 of their bytes and fanned out by the first two hex chars,
+ * so identical uploads are stored once and a stored file never changes.
+ * Resized variants sit next to their original as {@code <hash>-<variant>.<jpg|png>}.
+ * Since a file can be shared, a stored hash stays pinned until its caller has saved the product
+ * pointing at it and unpins it; storing and deleting a hash take the same lock stripe, so a delete
+ * never removes a file that an upload has just found in place or put there.
+ */
+@Service
+public class ImageStore {
+
+    // Variants are JPEG, or PNG when the original has transparency
+    static final String[] VARIANT_FORMATS = {"jpg", "png"};
+
+    private static final int STRIPES = 64;
+
+    @Value("${ecom.images.dir:data/images}")
+    private String baseDir;
+
+    private Path root;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // Hashes stored but not yet referenced by a saved product, with how many uploads hold each
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(baseDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Streams the upload to a temp file while hashing it, then moves it into place.
+    // The returned hash is pinned; call unpin once the product referencing it is saved.
+    public String store(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            try (DigestInputStream din = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                din.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                pins.merge(hash, 1, Integer::sum);
+            } finally {
+                lock.unlock();
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Resource load(String hash) {
+        if (!isValidHash(hash)) {
+            return null;
+        }
+        Path path = pathFor(hash);
+        return Files.isReadable(path) ? new FileSystemResource(path) : null;
+    }
+
+    public void unpin(String hash) {
+        if (hash != null) {
+            pins.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    // Removes the original and every variant derived from it, unless an upload holds the hash
+    // or inUse says a saved product still points at it
+    public void deleteIfUnused(String hash, BooleanSupplier inUse) throws IOException {
+        if (!isValidHash(hash)) {
+            return;
+        }
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (pins.containsKey(hash) || inUse.getAsBoolean()) {
+                return;
+            }
+            Files.deleteIfExists(pathFor(hash));
+            for (ImageVariant variant : ImageVariant.values()) {
+                for (String format : VARIANT_FORMATS) {
+                    Files.deleteIfExists(variantPath(hash, variant, format));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path originalPath(String hash) {
+        return pathFor(hash);
+    }
+
+    public Resource loadVariant(String hash, ImageVariant variant) {
+        if (!isValidHash(hash)) {
+            return null;
+        }
+        for (String format : VARIANT_FORMATS) {
+            Path path = variantPath(hash, variant, format);
+            if (Files.isReadable(path)) {
+                return new FileSystemResource(path);
+            }
+        }
+        return null;
+    }
+
+    // Writes through a temp file so readers never see a half-written variant.
+    // Encoding runs outside the lock; the move takes it, and is skipped if the original was deleted meanwhile,
+    // so a late resize never leaves an orphan variant behind.
+    public void storeVariant(String hash, ImageVariant variant, String format, VariantWriter writer) throws IOException {
+        Path target = variantPath(hash, variant, format);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                writer.write(out);
+            }
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                if (!Files.exists(pathFor(hash))) {
+                    return;
+                }
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public interface VariantWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), STRIPES)];
+    }
+
+    private Path variantPath(String hash, ImageVariant variant, String format) {
+        return pathFor(hash).resolveSibling(hash + "-" + variant.getName() + "." + format);
+    }
+
+    private Path pathFor(String hash) {
+        if (!isValidHash(hash)) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static boolean isValidHash(String hash) {
+        if (hash == null || hash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
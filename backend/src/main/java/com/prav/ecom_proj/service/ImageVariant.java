@@ -0,0 +1,36 @@
+package com.prav.ecom_proj.service;
+
+// Downscaled renditions of a product image, bounded by their longest side
+public enum ImageVariant {
+    THUMB("thumb", 320),
+    MEDIUM("medium", 800);
+
+    private final String name;
+    private final int maxDimension;
+
+    ImageVariant(String name, int maxDimension) {
+        this.name = name;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    // Null or "original" means the uploaded image itself
+    public static ImageVariant from(String name) {
+        if (name == null || name.isBlank() || name.equalsIgnoreCase("original")) {
+            return null;
+        }
+        for (ImageVariant variant : values()) {
+            if (variant.name.equalsIgnoreCase(name)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported image size: " + name);
+    }
+}
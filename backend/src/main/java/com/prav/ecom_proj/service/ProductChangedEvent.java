@@ -0,0 +1,5 @@
+package com.prav.ecom_proj.service;
+
+// Published after a product is updated or deleted, for state derived from product data
+public record ProductChangedEvent(int productId) {
+}
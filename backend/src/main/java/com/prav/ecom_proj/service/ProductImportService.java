@@ -0,0 +1,327 @@
+package com.prav.ecom_proj.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.prav.ecom_proj.model.ImportReport;
+import com.prav.ecom_proj.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads products in bulk from CSV or NDJSON uploads.
+ * The upload is parsed one row at a time straight off the request stream, and rows are inserted
+ * in JDBC batches, one transaction per batch, so memory use is bounded by the batch size rather
+ * than the file size. A malformed row is skipped and reported; it doesn't abort the import.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ecom.import.batch-size:500}")
+    private int defaultBatchSize;
+
+    // Yields one product per call, null at the end; throws IllegalArgumentException for a bad row
+    private interface RowSource {
+        Product next() throws IOException;
+
+        long row();
+    }
+
+    /**
+     * CSV with a header row. Recognised columns (any order, case-insensitive): name, desc or
+     * description, brand, price, category, release_date (yyyy-MM-dd), available, quantity.
+     */
+    public ImportReport importCsv(InputStream in, Integer batchSize) throws IOException {
+        try (CsvReader csv = new CsvReader(reader(in))) {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV upload is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).strip().toLowerCase(Locale.ROOT);
+                columns.put(column.equals("description") ? "desc" : column, i);
+            }
+            if (!columns.containsKey("name")) {
+                throw new IllegalArgumentException("CSV header must include a name column");
+            }
+
+            return importRows(new RowSource() {
+                @Override
+                public Product next() throws IOException {
+                    List<String> fields = csv.next();
+                    return fields == null ? null : fromCsv(columns, fields);
+                }
+
+                @Override
+                public long row() {
+                    return csv.record;
+                }
+            }, batchSize);
+        }
+    }
+
+    // One JSON product object per line, using the same field names as the product API
+    public ImportReport importNdjson(InputStream in, Integer batchSize) throws IOException {
+        ObjectReader productReader = objectMapper.readerFor(Product.class);
+        try (BufferedReader lines = new BufferedReader(reader(in))) {
+            return importRows(new RowSource() {
+                private long row;
+
+                @Override
+                public Product next() throws IOException {
+                    String line;
+                    do {
+                        line = lines.readLine();
+                        row++;
+                    } while (line != null && line.isBlank());
+                    if (line == null) {
+                        return null;
+                    }
+                    // Parsed line by line rather than as one token stream, so a bad line can be skipped
+                    try {
+                        return validated(fresh(productReader.readValue(line)));
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException(e.getOriginalMessage());
+                    }
+                }
+
+                @Override
+                public long row() {
+                    return row;
+                }
+            }, batchSize);
+        }
+    }
+
+    private ImportReport importRows(RowSource source, Integer requestedBatchSize) throws IOException {
+        int batchSize = Math.max(1, Math.min(requestedBatchSize != null ? requestedBatchSize : defaultBatchSize, MAX_BATCH_SIZE));
+        long started = System.nanoTime();
+        long imported = 0;
+        long skipped = 0;
+        List<String> errors = new ArrayList<>();
+        List<Product> batch = new ArrayList<>(batchSize);
+
+        while (true) {
+            Product product;
+            try {
+                product = source.next();
+            } catch (IllegalArgumentException e) {
+                skipped++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Row " + source.row() + ": " + e.getMessage());
+                }
+                continue;
+            }
+            if (product == null) {
+                break;
+            }
+            batch.add(product);
+            if (batch.size() == batchSize) {
+                insert(batch, batchSize);
+                imported += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, batchSize);
+            imported += batch.size();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        double rowsPerSecond = imported * 1000.0 / elapsedMillis;
+        log.info("Imported {} products ({} skipped) in {} ms, {} rows/s",
+                imported, skipped, elapsedMillis, Math.round(rowsPerSecond));
+        return new ImportReport(imported, skipped, elapsedMillis, rowsPerSecond, errors);
+    }
+
+    private void insert(List<Product> batch, int batchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            batch.forEach(entityManager::persist);
+            entityManager.flush();
+            // The web request keeps the persistence context open, so drop the batch from it explicitly
+            entityManager.clear();
+        });
+        productService.productsImported(batch);
+    }
+
+    private static Product fromCsv(Map<String, Integer> columns, List<String> fields) {
+        Product product = new Product();
+        product.setName(field(columns, fields, "name"));
+        product.setDesc(field(columns, fields, "desc"));
+        product.setBrand(field(columns, fields, "brand"));
+        product.setCategory(field(columns, fields, "category"));
+
+        String price = field(columns, fields, "price");
+        String releaseDate = field(columns, fields, "release_date");
+        String available = field(columns, fields, "available");
+        String quantity = field(columns, fields, "quantity");
+        try {
+            product.setPrice(price != null ? new BigDecimal(price) : null);
+            // Same calendar-day-in-UTC reading as the JSON API's release_date
+            product.setRelease_date(releaseDate != null
+                    ? Date.from(LocalDate.parse(releaseDate).atStartOfDay(ZoneOffset.UTC).toInstant()) : null);
+            product.setAvailable(available == null || Boolean.parseBoolean(available));
+            product.setQuantity(quantity != null ? Integer.parseInt(quantity) : 0);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid value: " + e.getMessage());
+        }
+        return validated(product);
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Imported rows are always new products without images, whatever the upload says
+    private static Product fresh(Product product) {
+        product.setId(0);
+        product.setVersion(0);
+        product.setUpdatedAt(null);
+        product.setImageName(null);
+        product.setImageType(null);
+        product.setImageHash(null);
+        product.setImageSize(null);
+        return product;
+    }
+
+    private static Product validated(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (product.getPrice() != null && product.getPrice().signum() < 0) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+        if (product.getQuantity() < 0) {
+            throw new IllegalArgumentException("quantity must not be negative");
+        }
+        return product;
+    }
+
+    private static Reader reader(InputStream in) {
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    // Minimal RFC 4180 reader: quoted fields may hold commas, doubled quotes and line breaks
+    private static final class CsvReader implements AutoCloseable {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private int pushedBack = -2;
+        long record;
+
+        CsvReader(Reader in) {
+            this.in = new BufferedReader(in);
+        }
+
+        // Fields of the next record, or null at end of input
+        List<String> next() throws IOException {
+            int c = read();
+            while (c == '\r' || c == '\n') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            record++;
+            List<String> fields = new ArrayList<>();
+            boolean quoted = false;
+            field.setLength(0);
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field in record " + record);
+                    }
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = n;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') {
+                            pushedBack = n;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -1,35 +1,215 @@
 package com.prav.ecom_proj.service;
 
+import com.prav.ecom_proj.index.ProductFacetIndex;
+import com.prav.ecom_proj.index.ProductIndex;
+import com.prav.ecom_proj.index.ProductSearchIndex;
+import com.prav.ecom_proj.index.ProductSortIndex;
+import com.prav.ecom_proj.index.ProductSuggestIndex;
+import com.prav.ecom_proj.model.FacetCount;
 import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductFilter;
+import com.prav.ecom_proj.model.ProductListing;
+import com.prav.ecom_proj.model.ProductPage;
+import com.prav.ecom_proj.model.ProductSummary;
+import com.prav.ecom_proj.model.SearchResult;
+import com.prav.ecom_proj.model.Suggestion;
 import com.prav.ecom_proj.repo.ProductRepo;
+import com.prav.ecom_proj.repo.ProductSortKey;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Service
+@Timed("ecom.service")
 public class ProductService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductRepo repo;
 
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageProcessor imageProcessor;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductSortIndex sortIndex;
+
+    @Autowired
+    private List<ProductIndex> indexes;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    // A listing page before its rows are loaded: the page's ids in order, the match count and facets
+    public record ListingHits(List<Integer> ids, int total, Map<String, List<FacetCount>> facets) {
+    }
+
+    // Changes on every catalog write; the boot nonce keeps ETags from colliding across restarts
+    private final String catalogNonce = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // For writes that bypass this service, such as stock reservations
+    public void markCatalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    public String getCatalogETag() {
+        return "\"catalog-" + catalogNonce + "-" + catalogVersion.get() + "\"";
+    }
+
+    // Build every in-memory index from the product table once the app is up
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndexes() {
+        indexes.forEach(ProductIndex::clear);
+        try (Stream<Product> products = repo.streamAll()) {
+            products.forEach(product -> indexes.forEach(index -> index.put(product)));
+        }
+    }
+
     public List<Product> getAllProducts() {
         return repo.findAll();
     }
 
+    public ProductPage getProductPage(String cursor, int size, String sort, String direction) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductSortKey sortKey = ProductSortKey.from(sort);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        Object afterValue = null;
+        Integer afterId = null;
+
+        // The cursor carries its own sort so later pages can't drift from the first one
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\n", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            sortKey = ProductSortKey.from(parts[0]);
+            descending = "desc".equals(parts[1]);
+            afterId = Integer.valueOf(parts[2]);
+            afterValue = sortKey.parse(parts[3]);
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        List<ProductSummary> rows = sortIndex.supports(sortKey)
+                ? indexedPage(sortKey, descending, afterValue, afterId, limit + 1)
+                : repo.findSummariesAfter(sortKey, descending, afterValue, afterId, limit + 1);
+        if (rows.size() <= limit) {
+            return new ProductPage(rows, null);
+        }
+
+        List<ProductSummary> items = rows.subList(0, limit);
+        ProductSummary last = items.get(limit - 1);
+        String next = String.join("\n",
+                sortKey.getAttribute(),
+                descending ? "desc" : "asc",
+                String.valueOf(last.id()),
+                sortValue(sortKey, last));
+        return new ProductPage(List.copyOf(items),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(next.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Price and date pages are walked off the sorted index; only the page's rows are loaded
+    private List<ProductSummary> indexedPage(ProductSortKey sortKey, boolean descending,
+                                             Object afterValue, Integer afterId, int limit) {
+        List<Integer> ids = afterId == null
+                ? sortIndex.page(sortKey, descending, null, 0, limit)
+                : sortIndex.after(sortKey, descending, indexKey(afterValue), afterId, limit);
+        return summaries(ids);
+    }
+
+    private static long indexKey(Object value) {
+        return value instanceof BigDecimal price
+                ? ProductSortIndex.cents(price)
+                : ProductSortIndex.epochDay((java.util.Date) value);
+    }
+
+    private static String sortValue(ProductSortKey sortKey, ProductSummary row) {
+        return switch (sortKey) {
+            case ID -> String.valueOf(row.id());
+            case NAME -> row.name() != null ? row.name() : "";
+            case PRICE -> row.price() != null ? row.price().toPlainString() : "0";
+            case RELEASE_DATE -> LocalDate.ofEpochDay(row.releaseDate() != null
+                    ? ProductSortIndex.epochDay(row.releaseDate()) : 0).toString();
+        };
+    }
+
+    // Misses come back as an empty Product and are not cached
+    @Cacheable(cacheNames = "products", key = "#id", unless = "#result.id == 0")
     public Product getProductById(int id) {
         return repo.findById(id).orElse(new Product());
     }
 
+    // Current state of several products, keyed by id; one query at most, for the ones not cached.
+    // The multi-load needs an open session, which a caller outside a web request doesn't have.
+    @Transactional(readOnly = true)
+    public Map<Integer, Product> getProductsById(Collection<Integer> ids) {
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : repo.findAllCachedById(ids)) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
     public Product addProduct(Product product, MultipartFile imageFile) throws IOException {
-        product.setImageName(imageFile.getOriginalFilename());
-        product.setImageType(imageFile.getContentType());
-        product.setImageData(imageFile.getBytes());
-        return repo.save(product);
+        storeImage(product, imageFile);
+        Product saved;
+        try {
+            saved = repo.save(product);
+        } finally {
+            imageStore.unpin(product.getImageHash());
+        }
+        indexes.forEach(index -> index.put(saved));
+        catalogVersion.incrementAndGet();
+        return saved;
+    }
+
+    // Bulk imports persist through the entity manager directly; this catches the indexes up per batch
+    public void productsImported(List<Product> products) {
+        for (Product product : products) {
+            indexes.forEach(index -> index.put(product));
+        }
+        catalogVersion.incrementAndGet();
     }
 
+    @CacheEvict(cacheNames = "products", key = "#id")
     public Product updateProduct(int id, Product product, MultipartFile imageFile) throws IOException {
         Product existingProduct = repo.findById(id).orElse(null);
 
@@ -48,20 +228,155 @@ public class ProductService {
         existingProduct.setQuantity(product.getQuantity());
 
         // Update image only if new image is provided
+        String oldHash = existingProduct.getImageHash();
+        String newHash = null;
         if (imageFile != null && !imageFile.isEmpty()) {
-            existingProduct.setImageName(imageFile.getOriginalFilename());
-            existingProduct.setImageType(imageFile.getContentType());
-            existingProduct.setImageData(imageFile.getBytes());
+            storeImage(existingProduct, imageFile);
+            newHash = existingProduct.getImageHash();
         }
 
-        return repo.save(existingProduct);
+        Product saved;
+        try {
+            saved = repo.save(existingProduct);
+        } finally {
+            imageStore.unpin(newHash);
+        }
+        indexes.forEach(index -> index.put(saved));
+        catalogVersion.incrementAndGet();
+        events.publishEvent(new ProductChangedEvent(id));
+        releaseImage(oldHash);
+        return saved;
     }
 
-    public void deleteProduct(int id) {
+    @CacheEvict(cacheNames = "products", key = "#id")
+    public void deleteProduct(int id) throws IOException {
+        String hash = repo.findImageHashById(id);
         repo.deleteById(id);
+        indexes.forEach(index -> index.remove(id));
+        catalogVersion.incrementAndGet();
+        events.publishEvent(new ProductChangedEvent(id));
+        releaseImage(hash);
+    }
+
+    public Resource getImage(Product product) {
+        return product.getImageHash() != null ? imageStore.load(product.getImageHash()) : null;
+    }
+
+    // Null until the variant has been generated; asking for a missing one (re)queues it
+    public Resource getImageVariant(Product product, ImageVariant variant) {
+        if (product.getImageHash() == null) {
+            return null;
+        }
+        Resource resource = imageStore.loadVariant(product.getImageHash(), variant);
+        if (resource == null) {
+            imageProcessor.submit(product.getImageHash());
+        }
+        return resource;
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return repo.searchProducts(keyword);
+    private void storeImage(Product product, MultipartFile imageFile) throws IOException {
+        // The stored type is echoed back as Content-Type, so only accept images
+        if (imageFile.getContentType() == null || !imageFile.getContentType().startsWith("image/")) {
+            throw new RuntimeException("Only image uploads are supported");
+        }
+        // The multipart part is already on disk; this streams it into the store without touching the heap
+        try (InputStream in = imageFile.getInputStream()) {
+            product.setImageHash(imageStore.store(in));
+        }
+        imageProcessor.submit(product.getImageHash());
+        product.setImageName(imageFile.getOriginalFilename());
+        product.setImageType(imageFile.getContentType());
+        product.setImageSize(imageFile.getSize());
+    }
+
+    // Images are shared by content hash, so only drop the file once nothing points at it.
+    // The check runs under the hash's lock in the store, so an upload of the same bytes can't slip in between.
+    private void releaseImage(String hash) throws IOException {
+        if (hash != null) {
+            imageStore.deleteIfUnused(hash, () -> repo.existsByImageHash(hash));
+        }
+    }
+
+    // Both come from the query cache until a product write changes the table
+    public List<String> getCategories() {
+        return repo.findCategories();
+    }
+
+    public List<String> getBrands() {
+        return repo.findBrands();
+    }
+
+    // Served entirely from memory, keystroke traffic never reaches the database
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, Math.min(limit, ProductSuggestIndex.MAX_SUGGESTIONS));
+    }
+
+    // Ranked by the search index; only the requested page is loaded from the database
+    public SearchResult searchProducts(String keyword, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductSearchIndex.Hits hits = searchIndex.search(keyword, Math.max(page, 0), limit);
+        return new SearchResult(summaries(hits.ids()), hits.total());
+    }
+
+    // Filtering, facet counts and ordering all come from the in-memory indexes; only the
+    // requested page is loaded. Sorts by id, price or release date.
+    public ProductListing browseProducts(ProductFilter filter, int page, int size, String sort, String direction) {
+        ListingHits hits = findListing(filter, page, size, sort, direction);
+        return new ProductListing(summaries(hits.ids()), hits.total(), hits.facets());
+    }
+
+    // The index half of browseProducts, for callers that load the rows themselves
+    public ListingHits findListing(ProductFilter filter, int page, int size, String sort, String direction) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Past the last match is just an empty page, however far past
+        int offset = (int) Math.min((long) Math.max(page, 0) * limit, Integer.MAX_VALUE);
+        ProductSortKey sortKey = ProductSortKey.from(sort);
+        if (sortKey != ProductSortKey.ID && !sortIndex.supports(sortKey)) {
+            throw new IllegalArgumentException("Listings can't be sorted by " + sortKey.getAttribute());
+        }
+
+        // Price bounds round inwards, so a range never takes in a price outside what was asked for
+        BitSet within = null;
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            within = sortIndex.range(ProductSortKey.PRICE,
+                    filter.minPrice() != null ? ProductSortIndex.cents(filter.minPrice(), RoundingMode.CEILING) : null,
+                    filter.maxPrice() != null ? ProductSortIndex.cents(filter.maxPrice(), RoundingMode.FLOOR) : null);
+        }
+        if (filter.releasedFrom() != null || filter.releasedTo() != null) {
+            BitSet released = sortIndex.range(ProductSortKey.RELEASE_DATE,
+                    filter.releasedFrom() != null ? filter.releasedFrom().toEpochDay() : null,
+                    filter.releasedTo() != null ? filter.releasedTo().toEpochDay() : null);
+            if (within == null) {
+                within = released;
+            } else {
+                within.and(released);
+            }
+        }
+
+        ProductFacetIndex.Result result = facetIndex.query(filter, within);
+        List<Integer> ids = sortKey == ProductSortKey.ID
+                ? result.ids(offset, limit)
+                : sortIndex.page(sortKey, "desc".equalsIgnoreCase(direction), result.matches(), offset, limit);
+        return new ListingHits(ids, result.total(), result.facets());
+    }
+
+    // Summaries in the order of the given ids, from one projection query; ids deleted in the
+    // meantime are skipped
+    private List<ProductSummary> summaries(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, ProductSummary> byId = new HashMap<>();
+        for (ProductSummary summary : repo.findSummariesById(ids)) {
+            byId.put(summary.id(), summary);
+        }
+        List<ProductSummary> ordered = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductSummary summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
     }
-}
\ No newline at end of file
+}
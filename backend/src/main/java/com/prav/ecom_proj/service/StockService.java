@@ -0,0 +1,103 @@
+package com.prav.ecom_proj.service;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductStock;
+import com.prav.ecom_proj.repo.ProductRepo;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Moves stock between the shelf (Product.quantity) and carts.
+ * Each reservation is a single conditional UPDATE, so concurrent buyers can never take the
+ * quantity below zero and no row stays locked beyond that one statement.
+ * Listings show stock, so a committed move changes the catalog ETag. It doesn't evict the cached
+ * product: the cached copy takes the new quantity and version instead.
+ */
+@Service
+public class StockService {
+
+    @Autowired
+    private ProductRepo repo;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductService productService;
+
+    // True if the stock was taken; false if there wasn't enough left
+    @Transactional
+    public boolean reserve(int productId, int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        boolean reserved = repo.reserveStock(productId, quantity) == 1;
+        if (reserved) {
+            refreshCachedAfterCommit(productId);
+        }
+        return reserved;
+    }
+
+    @Transactional
+    public void release(int productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        if (repo.releaseStock(productId, quantity) == 1) {
+            refreshCachedAfterCommit(productId);
+        }
+    }
+
+    private void refreshCachedAfterCommit(int productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockChanged(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockChanged(productId);
+            }
+        });
+    }
+
+    private void stockChanged(int productId) {
+        refreshCached(productId);
+        productService.markCatalogChanged();
+    }
+
+    private void refreshCached(int productId) {
+        if (!(cacheManager.getCache("products") instanceof CaffeineCache cache)) {
+            return;
+        }
+        Map<Object, Object> cached = cache.getNativeCache().asMap();
+        if (!cached.containsKey(productId)) {
+            return;
+        }
+        ProductStock stock = repo.findStockById(productId);
+        if (stock == null) {
+            cached.remove(productId);
+            return;
+        }
+        // Versions only go up, so a refresh that lost a race to a newer one leaves it alone
+        cached.computeIfPresent(productId, (id, value) -> {
+            if (!(value instanceof Product product) || product.getVersion() >= stock.version()) {
+                return value;
+            }
+            Product refreshed = new Product();
+            BeanUtils.copyProperties(product, refreshed);
+            refreshed.setQuantity(stock.quantity());
+            refreshed.setVersion(stock.version());
+            refreshed.setUpdatedAt(stock.updatedAt());
+            return refreshed;
+        });
+    }
+}
@@ -1,21 +1,24 @@
-INSERT INTO product (name, desc, brand, price, category, release_date, available, quantity) VALUES
-('iPhone 15 Pro', 'Latest Apple flagship smartphone with A17 Pro chip and titanium design', 'Apple', 999.99, 'Electronics', '2023-09-22', true, 50),
-('Samsung Galaxy S24', 'Premium Android smartphone with AI features and stunning display', 'Samsung', 899.99, 'Electronics', '2024-01-17', true, 45),
-('Sony WH-1000XM5', 'Industry-leading noise cancelling wireless headphones', 'Sony', 399.99, 'Electronics', '2022-05-12', true, 30),
-('MacBook Pro 14"', 'Powerful laptop with M3 chip for professionals', 'Apple', 1999.99, 'Computers', '2023-11-07', true, 25),
-('Dell XPS 13', 'Ultra-portable laptop with stunning InfinityEdge display', 'Dell', 1299.99, 'Computers', '2023-06-15', true, 20),
-('Nike Air Max 270', 'Comfortable running shoes with Max Air cushioning', 'Nike', 150.00, 'Footwear', '2023-03-01', true, 100),
-('Adidas Ultraboost 23', 'Premium running shoes with responsive Boost cushioning', 'Adidas', 180.00, 'Footwear', '2023-08-20', true, 80),
-('Levi''s 501 Original Jeans', 'Classic straight fit denim jeans', 'Levi''s', 89.99, 'Clothing', '2023-01-10', true, 150),
-('The North Face Jacket', 'Waterproof and breathable outdoor jacket', 'The North Face', 249.99, 'Clothing', '2023-09-05', true, 60),
-('Canon EOS R6', 'Full-frame mirrorless camera for professionals', 'Canon', 2499.99, 'Electronics', '2020-08-27', true, 15),
-('Nikon Z6 III', 'Versatile full-frame mirrorless camera', 'Nikon', 2199.99, 'Electronics', '2024-06-17', true, 12),
-('PlayStation 5', 'Next-gen gaming console with ultra-fast SSD', 'Sony', 499.99, 'Gaming', '2020-11-12', true, 35),
-('Xbox Series X', 'Powerful gaming console with 4K gaming', 'Microsoft', 499.99, 'Gaming', '2020-11-10', true, 40),
-('Nintendo Switch OLED', 'Hybrid gaming console with vibrant OLED screen', 'Nintendo', 349.99, 'Gaming', '2021-10-08', true, 55),
-('Dyson V15 Detect', 'Cordless vacuum with laser dust detection', 'Dyson', 649.99, 'Home Appliances', '2021-03-24', true, 28),
-('Instant Pot Duo', 'Multi-functional pressure cooker', 'Instant Pot', 89.99, 'Home Appliances', '2023-02-14', true, 75),
-('Kindle Paperwhite', 'Waterproof e-reader with adjustable warm light', 'Amazon', 139.99, 'Electronics', '2021-10-27', true, 90),
-('Apple Watch Series 9', 'Advanced smartwatch with health monitoring', 'Apple', 399.99, 'Wearables', '2023-09-22', true, 65),
-('Fitbit Charge 6', 'Fitness tracker with built-in GPS', 'Fitbit', 159.99, 'Wearables', '2023-09-28', true, 85),
-('Bose QuietComfort Earbuds II', 'Premium noise cancelling earbuds', 'Bose', 279.99, 'Electronics', '2022-09-15', true, 42);
\ No newline at end of file
+INSERT INTO product (id, name, desc, brand, price, category, release_date, available, quantity) VALUES
+(1, 'iPhone 15 Pro', 'Latest Apple flagship smartphone with A17 Pro chip and titanium design', 'Apple', 999.99, 'Electronics', '2023-09-22', true, 50),
+(2, 'Samsung Galaxy S24', 'Premium Android smartphone with AI features and stunning display', 'Samsung', 899.99, 'Electronics', '2024-01-17', true, 45),
+(3, 'Sony WH-1000XM5', 'Industry-leading noise cancelling wireless headphones', 'Sony', 399.99, 'Electronics', '2022-05-12', true, 30),
+(4, 'MacBook Pro 14"', 'Powerful laptop with M3 chip for professionals', 'Apple', 1999.99, 'Computers', '2023-11-07', true, 25),
+(5, 'Dell XPS 13', 'Ultra-portable laptop with stunning InfinityEdge display', 'Dell', 1299.99, 'Computers', '2023-06-15', true, 20),
+(6, 'Nike Air Max 270', 'Comfortable running shoes with Max Air cushioning', 'Nike', 150.00, 'Footwear', '2023-03-01', true, 100),
+(7, 'Adidas Ultraboost 23', 'Premium running shoes with responsive Boost cushioning', 'Adidas', 180.00, 'Footwear', '2023-08-20', true, 80),
+(8, 'Levi''s 501 Original Jeans', 'Classic straight fit denim jeans', 'Levi''s', 89.99, 'Clothing', '2023-01-10', true, 150),
+(9, 'The North Face Jacket', 'Waterproof and breathable outdoor jacket', 'The North Face', 249.99, 'Clothing', '2023-09-05', true, 60),
+(10, 'Canon EOS R6', 'Full-frame mirrorless camera for professionals', 'Canon', 2499.99, 'Electronics', '2020-08-27', true, 15),
+(11, 'Nikon Z6 III', 'Versatile full-frame mirrorless camera', 'Nikon', 2199.99, 'Electronics', '2024-06-17', true, 12),
+(12, 'PlayStation 5', 'Next-gen gaming console with ultra-fast SSD', 'Sony', 499.99, 'Gaming', '2020-11-12', true, 35),
+(13, 'Xbox Series X', 'Powerful gaming console with 4K gaming', 'Microsoft', 499.99, 'Gaming', '2020-11-10', true, 40),
+(14, 'Nintendo Switch OLED', 'Hybrid gaming console with vibrant OLED screen', 'Nintendo', 349.99, 'Gaming', '2021-10-08', true, 55),
+(15, 'Dyson V15 Detect', 'Cordless vacuum with laser dust detection', 'Dyson', 649.99, 'Home Appliances', '2021-03-24', true, 28),
+(16, 'Instant Pot Duo', 'Multi-functional pressure cooker', 'Instant Pot', 89.99, 'Home Appliances', '2023-02-14', true, 75),
+(17, 'Kindle Paperwhite', 'Waterproof e-reader with adjustable warm light', 'Amazon', 139.99, 'Electronics', '2021-10-27', true, 90),
+(18, 'Apple Watch Series 9', 'Advanced smartwatch with health monitoring', 'Apple', 399.99, 'Wearables', '2023-09-22', true, 65),
+(19, 'Fitbit Charge 6', 'Fitness tracker with built-in GPS', 'Fitbit', 159.99, 'Wearables', '2023-09-28', true, 85),
+(20, 'Bose QuietComfort Earbuds II', 'Premium noise cancelling earbuds', 'Bose', 279.99, 'Electronics', '2022-09-15', true, 42);
+
+-- Ids above are explicit, so move the pooled sequence past them
+ALTER SEQUENCE product_seq RESTART WITH 21;
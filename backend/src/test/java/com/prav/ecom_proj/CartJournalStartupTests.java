@@ -0,0 +1,50 @@
+package com.prav.ecom_proj;
+
+import com.prav.ecom_proj.repo.CartRepo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The context starts on a journal left behind with a line for a product that does not exist
+@SpringBootTest
+@DirtiesContext
+class CartJournalStartupTests {
+
+	// Removed with the class, after its context has been closed
+	@TempDir
+	static Path journal;
+
+	@DynamicPropertySource
+	static void journalDir(DynamicPropertyRegistry registry) {
+		registry.add("ecom.cart.journal.dir", () -> journal.toString());
+	}
+
+	// Runs before the context starts and replays the journal
+	@BeforeAll
+	static void poisonJournal() throws Exception {
+		Files.writeString(journal.resolve("cart-0-000000000001.log"), "c1\t999\t1\n");
+	}
+
+	@Autowired
+	private CartRepo cartRepo;
+
+	@Test
+	void startupSurvivesAPoisonedJournal() throws Exception {
+		assertTrue(cartRepo.findByCartId("c1").isEmpty());
+		try (Stream<Path> segments = Files.list(journal)) {
+			assertEquals(0, segments.count());
+		}
+	}
+}
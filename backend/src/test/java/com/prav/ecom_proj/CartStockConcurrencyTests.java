@@ -0,0 +1,108 @@
+package com.prav.ecom_proj;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.ProductRepo;
+import com.prav.ecom_proj.service.CartService;
+import com.prav.ecom_proj.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// A journal of its own, so contexts side by side never replay each other's segments
+@SpringBootTest
+@DirtiesContext
+class CartStockConcurrencyTests {
+
+	// Removed with the class, after its context has been closed
+	@TempDir
+	static Path journal;
+
+	@DynamicPropertySource
+	static void journalDir(DynamicPropertyRegistry registry) {
+		registry.add("ecom.cart.journal.dir", () -> journal.toString());
+	}
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void concurrentAddsNeverOversell() throws Exception {
+		int productId = TestProducts.save(productRepo, "Limited Edition", "10.00", 20).getId();
+
+		int buyers = 64;
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < buyers; i++) {
+			String cartId = "buyer-" + i;
+			results.add(pool.submit(() -> {
+				start.await();
+				try {
+					cartService.addToCart(cartId, productId, 1);
+					return cartId;
+				} catch (RuntimeException e) {
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+
+		List<String> winners = new ArrayList<>();
+		for (Future<String> result : results) {
+			if (result.get() != null) {
+				winners.add(result.get());
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(20, winners.size());
+		assertEquals(0, productRepo.findById(productId).orElseThrow().getQuantity());
+
+		// Giving a line back puts its stock back on the shelf
+		cartService.deleteCartItem(winners.get(0), productId);
+		cartService.clearCart(winners.get(1));
+		assertEquals(2, productRepo.findById(productId).orElseThrow().getQuantity());
+	}
+
+	@Test
+	void reservationsRefreshTheCachedProductAndTheCatalogETag() {
+		int productId = TestProducts.save(productRepo, "Cached Stock", "3.00", 5).getId();
+		long version = productService.getProductById(productId).getVersion();
+		String etag = productService.getCatalogETag();
+
+		cartService.addToCart("cached-stock", productId, 2);
+
+		Product cached = productService.getProductById(productId);
+		assertEquals(3, cached.getQuantity());
+		assertEquals(version + 1, cached.getVersion());
+		assertNotEquals(etag, productService.getCatalogETag());
+
+		// Giving the stock back is a change of its own
+		etag = productService.getCatalogETag();
+		cartService.deleteCartItem("cached-stock", productId);
+		assertEquals(5, productService.getProductById(productId).getQuantity());
+		assertNotEquals(etag, productService.getCatalogETag());
+	}
+
+}
@@ -0,0 +1,265 @@
+package com.prav.ecom_proj;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Statement;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three server stacks under the same workload: Tomcat on platform threads, Tomcat on virtual
+ * threads, and WebFlux on Netty with R2DBC (the "reactive" profile). Opt-in, as it runs for a
+ * while: {@code mvn test -Dtest=ServerModeBenchmark -Dbenchmark=true}, optionally with
+ * -Dbenchmark.concurrency (default 1000), -Dbenchmark.seconds (default 10),
+ * -Dbenchmark.db-latency-ms (default 20) and -Dbenchmark.modes (default platform,virtual,reactive).
+ * The app is booted once per mode. Every SQL statement is held back by the configured latency to
+ * stand in for a networked database: a sleep on the calling thread for JDBC, a delayed
+ * subscription for R2DBC. Both connection pools are sized above Tomcat's 200 threads, so only the
+ * server's concurrency model limits throughput.
+ * Memory per connection is the heap still live after a GC in the middle of the run, less the idle
+ * heap, divided by the number of clients. The clients run in the same JVM and are the same in
+ * every mode, so differences between modes are the server's.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ServerModeBenchmark {
+
+	private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+	private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+	private static final long LATENCY_MS = Long.getLong("benchmark.db-latency-ms", 20);
+	private static final List<String> MODES = List.of(System.getProperty("benchmark.modes", "platform,virtual,reactive").split(","));
+	private static final int POOL_SIZE = 400;
+	// Index lookup plus one summaries query per request, served by both controller stacks
+	private static final String PATH = "/api/products/search?keyword=pro&size=12";
+
+	// Sleeps before each statement, on the request thread, like a database round trip would
+	public static class LatencyInspector implements StatementInspector {
+		@Override
+		public String inspect(String sql) {
+			try {
+				Thread.sleep(LATENCY_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return sql;
+		}
+	}
+
+	// Rebuilds the DatabaseClient on a connection factory whose statements complete LATENCY_MS late
+	private static final BeanPostProcessor R2DBC_LATENCY = new BeanPostProcessor() {
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return bean instanceof DatabaseClient client ? DatabaseClient.create(delayed(client.getConnectionFactory())) : bean;
+		}
+	};
+
+	private record Result(String mode, long requests, long errors, long[] latenciesMicros, long bytesPerConnection, int threads) {
+		double throughput() {
+			return requests / (double) SECONDS;
+		}
+
+		double percentileMillis(double p) {
+			if (latenciesMicros.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.min(latenciesMicros.length - 1, Math.ceil(p / 100 * latenciesMicros.length) - 1);
+			return latenciesMicros[Math.max(index, 0)] / 1000.0;
+		}
+	}
+
+	@Test
+	void compareServerModes() throws Exception {
+		List<Result> results = new ArrayList<>();
+		for (String mode : MODES) {
+			results.add(run(mode.strip()));
+		}
+		System.out.printf("%n%d clients, %d s, %d ms per statement%n", CONCURRENCY, SECONDS, LATENCY_MS);
+		System.out.printf("%-9s %10s %8s %9s %9s %9s %12s %8s%n",
+				"mode", "req/s", "errors", "p50 ms", "p99 ms", "max ms", "KiB/conn", "threads");
+		for (Result r : results) {
+			System.out.printf("%-9s %10.0f %8d %9.1f %9.1f %9.1f %12.1f %8d%n", r.mode(), r.throughput(), r.errors(),
+					r.percentileMillis(50), r.percentileMillis(99), r.percentileMillis(100),
+					r.bytesPerConnection() / 1024.0, r.threads());
+		}
+	}
+
+	private Result run(String mode) throws Exception {
+		List<String> args = new ArrayList<>(List.of(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:bench-" + mode + ";DB_CLOSE_DELAY=-1",
+				"--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+				"--spring.sql.init.mode=always",
+				"--spring.sql.init.data-locations=classpath:data1.sql",
+				"--spring.jpa.show-sql=false",
+				"--spring.devtools.restart.enabled=false",
+				"--ecom.cart.journal.dir=target/bench-journal-" + mode));
+		switch (mode) {
+			case "platform", "virtual" -> {
+				args.add("--spring.threads.virtual.enabled=" + mode.equals("virtual"));
+				args.add("--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LatencyInspector.class.getName());
+			}
+			case "reactive" -> {
+				args.add("--spring.profiles.active=reactive");
+				args.add("--ecom.r2dbc.url=r2dbc:h2:mem:///bench-reactive");
+				args.add("--ecom.r2dbc.pool-size=" + POOL_SIZE);
+			}
+			default -> throw new IllegalArgumentException("Unknown mode " + mode);
+		}
+
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(EcomProjApplication.class)
+				.initializers(context -> context.getBeanFactory().addBeanPostProcessor(R2DBC_LATENCY))
+				.run(args.toArray(String[]::new))) {
+			int port = Integer.parseInt(app.getEnvironment().getProperty("local.server.port"));
+			URI uri = URI.create("http://localhost:" + port + PATH);
+
+			try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+				HttpClient http = HttpClient.newBuilder().executor(clients).build();
+				drive(http, uri, clients, 2);
+				long idleHeap = liveHeap();
+				return measure(mode, http, uri, clients, idleHeap);
+			}
+		}
+	}
+
+	private static void drive(HttpClient http, URI uri, ExecutorService clients, int seconds) throws Exception {
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		List<Future<long[]>> futures = new ArrayList<>();
+		for (int i = 0; i < CONCURRENCY; i++) {
+			futures.add(clients.submit(() -> loop(http, uri, end)));
+		}
+		for (Future<long[]> future : futures) {
+			future.get();
+		}
+	}
+
+	private static Result measure(String mode, HttpClient http, URI uri, ExecutorService clients, long idleHeap) throws Exception {
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+		List<Future<long[]>> futures = new ArrayList<>();
+		for (int i = 0; i < CONCURRENCY; i++) {
+			futures.add(clients.submit(() -> loop(http, uri, end)));
+		}
+		// Sample while every client is mid-flight
+		Thread.sleep(TimeUnit.SECONDS.toMillis(SECONDS) / 2);
+		long loadedHeap = liveHeap();
+		int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+		List<long[]> perClient = new ArrayList<>();
+		long errors = 0;
+		int total = 0;
+		for (Future<long[]> future : futures) {
+			long[] samples = future.get();
+			// The last slot carries the client's error count
+			errors += samples[samples.length - 1];
+			perClient.add(samples);
+			total += samples.length - 1;
+		}
+		long[] latencies = new long[total];
+		int at = 0;
+		for (long[] samples : perClient) {
+			System.arraycopy(samples, 0, latencies, at, samples.length - 1);
+			at += samples.length - 1;
+		}
+		Arrays.sort(latencies);
+		return new Result(mode, total, errors, latencies, Math.max(0, loadedHeap - idleHeap) / CONCURRENCY, threads);
+	}
+
+	private static long liveHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		memory.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	private static long[] loop(HttpClient http, URI uri, long end) {
+		HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+		long[] samples = new long[1024];
+		int n = 0;
+		long errors = 0;
+		while (System.nanoTime() < end) {
+			long start = System.nanoTime();
+			try {
+				HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+				if (response.statusCode() != 200) {
+					errors++;
+					continue;
+				}
+			} catch (Exception e) {
+				errors++;
+				continue;
+			}
+			if (n == samples.length - 1) {
+				samples = Arrays.copyOf(samples, samples.length * 2);
+			}
+			samples[n++] = (System.nanoTime() - start) / 1000;
+		}
+		long[] result = Arrays.copyOf(samples, n + 1);
+		result[n] = errors;
+		return result;
+	}
+
+	private static ConnectionFactory delayed(ConnectionFactory target) {
+		return new ConnectionFactory() {
+			@Override
+			public Publisher<? extends Connection> create() {
+				return Mono.from(target.create()).map(connection -> proxy(Connection.class, connection));
+			}
+
+			@Override
+			public ConnectionFactoryMetadata getMetadata() {
+				return target.getMetadata();
+			}
+		};
+	}
+
+	// Statements created through the proxied connection execute after the latency, without blocking a thread
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+			Object result = invoke(method, target, args);
+			if (result == target) {
+				// Fluent Statement methods return themselves; stay on the proxy
+				return self;
+			}
+			if (result instanceof Statement statement && type == Connection.class) {
+				return proxy(Statement.class, statement);
+			}
+			if (type == Statement.class && method.getName().equals("execute")) {
+				return Flux.from((Publisher<?>) result).delaySubscription(Duration.ofMillis(LATENCY_MS));
+			}
+			return result;
+		});
+	}
+
+	private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
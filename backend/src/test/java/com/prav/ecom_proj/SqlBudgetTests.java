@@ -0,0 +1,133 @@
+package com.prav.ecom_proj;
+
+import com.prav.ecom_proj.diagnostics.SqlStatementTracker;
+import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.CartRepo;
+import com.prav.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Budgets are enforced here, so any handler that grows an N+1 fails its request
+@SpringBootTest(properties = {
+		"ecom.sql.statement-header=true",
+		"ecom.sql.budget.enforce=true"})
+@AutoConfigureMockMvc
+@DirtiesContext
+class SqlBudgetTests {
+
+	// Removed with the class, after its context has been closed
+	@TempDir
+	static Path journal;
+
+	@DynamicPropertySource
+	static void journalDir(DynamicPropertyRegistry registry) {
+		registry.add("ecom.cart.journal.dir", () -> journal.toString());
+	}
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private CartRepo cartRepo;
+
+	private final List<Product> products = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		for (int i = 0; i < 5; i++) {
+			products.add(TestProducts.save(productRepo, "Budget Item " + i, "5.00", 50));
+		}
+	}
+
+	@Test
+	void catalogReadsStayWithinBudget() throws Exception {
+		int id = products.get(0).getId();
+		statements(get("/api/products"));
+		statements(get("/api/products/page"));
+		statements(get("/api/products").param("category", "Electronics").param("maxPrice", "100"));
+		statements(get("/api/products").param("sort", "price").param("direction", "desc"));
+		statements(get("/api/products/page").param("sort", "release_date"));
+		statements(get("/api/product/" + id));
+		statements(get("/api/products/search").param("keyword", "Budget"));
+		statements(get("/api/products/brands"));
+	}
+
+	@Test
+	void pagesFarPastTheEndComeBackEmpty() throws Exception {
+		String page = String.valueOf(Integer.MAX_VALUE);
+		mvc.perform(get("/api/products").param("page", page).param("size", "100"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.items").isEmpty());
+		mvc.perform(get("/api/products/search").param("keyword", "Budget").param("page", page).param("size", "100"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+	}
+
+	@Test
+	void repeatedLookupsComeFromTheQueryCache() throws Exception {
+		statements(get("/api/products/categories"));
+		assertEquals(0, statements(get("/api/products/categories")));
+	}
+
+	@Test
+	void cartFlowStaysWithinBudget() throws Exception {
+		String cart = "budget-flow";
+		for (Product product : products) {
+			statements(post("/api/cart").header("X-Cart-Id", cart)
+					.param("productId", String.valueOf(product.getId())).param("quantity", "1"));
+		}
+		int first = products.get(0).getId();
+		statements(get("/api/cart").header("X-Cart-Id", cart));
+		statements(get("/api/cart/" + first).header("X-Cart-Id", cart));
+		statements(put("/api/cart/" + first).header("X-Cart-Id", cart).param("quantity", "2"));
+		statements(delete("/api/cart/" + first).header("X-Cart-Id", cart));
+		statements(get("/api/cart/total").header("X-Cart-Id", cart));
+	}
+
+	@Test
+	void persistedCartLoadsInOneStatement() throws Exception {
+		// Rows written straight to the table, as if left by an earlier run; not in memory yet
+		String cart = "budget-persisted";
+		for (Product product : products) {
+			Cart line = new Cart();
+			line.setCartId(cart);
+			line.setProduct(product);
+			line.setQuantity(1);
+			line.setReservedAt(new Date());
+			cartRepo.save(line);
+		}
+		assertEquals(1, statements(get("/api/cart").header("X-Cart-Id", cart)));
+	}
+
+	private int statements(RequestBuilder request) throws Exception {
+		MvcResult result = mvc.perform(request).andReturn();
+		assertTrue(result.getResponse().getStatus() < 300, "status " + result.getResponse().getStatus());
+		return Integer.parseInt(result.getResponse().getHeader(SqlStatementTracker.HEADER));
+	}
+}
@@ -0,0 +1,27 @@
+package com.prav.ecom_proj;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.ProductRepo;
+
+import java.math.BigDecimal;
+
+// The in-stock product the context tests seed, saved straight through the repository
+public final class TestProducts {
+
+	private TestProducts() {
+	}
+
+	public static Product save(ProductRepo repo, String name, String price, int quantity) {
+		return save(repo, name, null, price, quantity);
+	}
+
+	public static Product save(ProductRepo repo, String name, String category, String price, int quantity) {
+		Product product = new Product();
+		product.setName(name);
+		product.setCategory(category);
+		product.setPrice(new BigDecimal(price));
+		product.setAvailable(true);
+		product.setQuantity(quantity);
+		return repo.save(product);
+	}
+}
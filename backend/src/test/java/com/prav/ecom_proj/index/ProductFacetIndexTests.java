@@ -0,0 +1,87 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.FacetCount;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductFacetIndexTests {
+
+	@Test
+	void eachFacetIsCountedUnderEveryFilterButItsOwn() {
+		ProductFacetIndex index = new ProductFacetIndex();
+		index.put(product(1, "Laptop", "Acme"));
+		index.put(product(2, "Laptop", "Globex"));
+		index.put(product(3, "Phone", "Acme"));
+		index.put(product(4, "Phone", "Acme"));
+		index.put(product(5, "Tablet", "Globex"));
+
+		ProductFacetIndex.Result result = index.query(filter(List.of("Phone"), List.of("Acme")), null);
+
+		assertEquals(ids(3, 4), result.matches());
+		// Categories under the brand filter only, brands under the category filter only
+		assertEquals(List.of(new FacetCount("Phone", 2), new FacetCount("Laptop", 1)),
+				result.facets().get(ProductFacetIndex.CATEGORY));
+		assertEquals(List.of(new FacetCount("Acme", 2)), result.facets().get(ProductFacetIndex.BRAND));
+	}
+
+	@Test
+	void valuesMatchCaseInsensitivelyAndKeepTheFirstLabel() {
+		ProductFacetIndex index = new ProductFacetIndex();
+		index.put(product(1, "Laptop", "Acme"));
+		index.put(product(2, "LAPTOP", "acme"));
+		index.put(product(3, " laptop ", "Globex"));
+
+		ProductFacetIndex.Result result = index.query(filter(List.of("lApToP"), List.of("ACME")), null);
+
+		assertEquals(ids(1, 2), result.matches());
+		assertEquals(List.of(new FacetCount("Laptop", 2)), result.facets().get(ProductFacetIndex.CATEGORY));
+		assertEquals(List.of(new FacetCount("Acme", 2), new FacetCount("Globex", 1)),
+				result.facets().get(ProductFacetIndex.BRAND));
+	}
+
+	@Test
+	void recategorisingAProductMovesItsPostingAndCount() {
+		ProductFacetIndex index = new ProductFacetIndex();
+		index.put(product(1, "Laptop", "Acme"));
+		index.put(product(2, "Laptop", "Acme"));
+
+		index.put(product(2, "Phone", "Acme"));
+
+		assertEquals(ids(1), index.query(filter(List.of("Laptop"), List.of()), null).matches());
+		assertEquals(ids(2), index.query(filter(List.of("Phone"), List.of()), null).matches());
+		assertEquals(List.of(new FacetCount("Laptop", 1), new FacetCount("Phone", 1)),
+				index.query(filter(List.of(), List.of()), null).facets().get(ProductFacetIndex.CATEGORY));
+
+		index.put(product(2, null, "Acme"));
+		assertEquals(ids(), index.query(filter(List.of("Phone"), List.of()), null).matches());
+		assertEquals(List.of(new FacetCount("Laptop", 1)),
+				index.query(filter(List.of(), List.of()), null).facets().get(ProductFacetIndex.CATEGORY));
+	}
+
+	private static Product product(int id, String category, String brand) {
+		Product product = new Product();
+		product.setId(id);
+		product.setCategory(category);
+		product.setBrand(brand);
+		product.setAvailable(true);
+		return product;
+	}
+
+	private static ProductFilter filter(List<String> categories, List<String> brands) {
+		return new ProductFilter(categories, brands, null, null, null, null, null);
+	}
+
+	private static BitSet ids(int... ids) {
+		BitSet set = new BitSet();
+		for (int id : ids) {
+			set.set(id);
+		}
+		return set;
+	}
+}
@@ -0,0 +1,111 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSearchIndexTests {
+
+	@Test
+	void aNameHitOutranksADescriptionHit() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.put(product(1, "Phone Case", "Fits most handsets"));
+		index.put(product(2, "Charger", "Fast charger for any phone"));
+		index.put(product(3, "Phone", "Unlocked"));
+
+		ProductSearchIndex.Hits hits = index.search("phone", 0, 10);
+
+		assertEquals(3, hits.total());
+		assertEquals(List.of(3, 1, 2), hits.ids());
+	}
+
+	@Test
+	void prefixesMatchButRankBelowAnExactTerm() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.put(product(1, "Laptop Stand", null));
+		index.put(product(2, "Lap Stand", null));
+		index.put(product(3, "Desk Lamp", null));
+
+		assertEquals(List.of(2, 1), index.search("lap", 0, 10).ids());
+		assertEquals(List.of(1), index.search("lapt", 0, 10).ids());
+	}
+
+	@Test
+	void trigramsFindInfixesOfThreeOrMoreCharacters() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.put(product(1, "Notebook", null));
+		index.put(product(2, "Bookshelf", null));
+		index.put(product(3, "Pen", null));
+
+		// "book" is a prefix of bookshelf and an infix of notebook
+		assertEquals(List.of(2, 1), index.search("book", 0, 10).ids());
+		assertEquals(List.of(1), index.search("ebo", 0, 10).ids());
+		// Too short for trigrams, so only prefixes count
+		assertEquals(List.of(), index.search("ok", 0, 10).ids());
+	}
+
+	@Test
+	void everyTokenMustMatch() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.put(product(1, "Red Mug", null));
+		index.put(product(2, "Blue Mug", null));
+		index.put(product(3, "Red Scarf", null));
+
+		assertEquals(List.of(1), index.search("red mug", 0, 10).ids());
+		assertEquals(0, index.search("green mug", 0, 10).total());
+	}
+
+	@Test
+	void pagesKeepTheTotal() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		for (int id = 1; id <= 5; id++) {
+			index.put(product(id, "Widget", null));
+		}
+
+		ProductSearchIndex.Hits second = index.search("widget", 1, 2);
+		assertEquals(5, second.total());
+		assertEquals(List.of(3, 4), second.ids());
+		assertEquals(List.of(), index.search("widget", Integer.MAX_VALUE, 2).ids());
+	}
+
+	@Test
+	void updatesAndRemovalsDropTheOldTerms() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.put(product(1, "Teapot", null));
+		index.put(product(1, "Kettle", null));
+
+		assertEquals(0, index.search("teapot", 0, 10).total());
+		assertEquals(0, index.search("eap", 0, 10).total());
+		assertEquals(List.of(1), index.search("kettle", 0, 10).ids());
+
+		index.remove(1);
+		assertEquals(0, index.search("kettle", 0, 10).total());
+	}
+
+	@Test
+	void lowercasingIgnoresTheDefaultLocale() {
+		Locale previous = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			ProductSearchIndex index = new ProductSearchIndex();
+			index.put(product(1, "IPHONE", null));
+
+			assertEquals(List.of(1), index.search("iphone", 0, 10).ids());
+			assertEquals(List.of("iphone"), ProductSearchIndex.tokenize("IPHONE"));
+		} finally {
+			Locale.setDefault(previous);
+		}
+	}
+
+	private static Product product(int id, String name, String desc) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setDesc(desc);
+		return product;
+	}
+}
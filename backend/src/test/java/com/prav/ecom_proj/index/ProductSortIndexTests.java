@@ -0,0 +1,122 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.ProductSortKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSortIndexTests {
+
+	@Test
+	void rangeBoundsAreInclusive() {
+		ProductSortIndex index = new ProductSortIndex();
+		index.put(product(1, "1.00"));
+		index.put(product(2, "2.00"));
+		index.put(product(3, "2.00"));
+		index.put(product(4, "3.00"));
+
+		assertEquals(ids(2, 3), index.range(ProductSortKey.PRICE, 200L, 200L));
+		assertEquals(ids(1, 2, 3), index.range(ProductSortKey.PRICE, null, 200L));
+		assertEquals(ids(2, 3, 4), index.range(ProductSortKey.PRICE, 150L, null));
+		assertEquals(ids(), index.range(ProductSortKey.PRICE, 201L, 299L));
+		assertEquals(ids(), index.range(ProductSortKey.PRICE, 300L, 100L));
+	}
+
+	@Test
+	void rangeReachesTheExtremeKeys() {
+		ProductSortIndex index = new ProductSortIndex();
+		BigDecimal lowest = BigDecimal.valueOf(Long.MIN_VALUE).movePointLeft(2);
+		BigDecimal highest = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(2);
+		index.put(product(0, lowest.toPlainString()));
+		index.put(product(1, "0.01"));
+		index.put(product(2, highest.toPlainString()));
+
+		assertEquals(ids(0, 1, 2), index.range(ProductSortKey.PRICE, Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(ids(2), index.range(ProductSortKey.PRICE, Long.MAX_VALUE, Long.MAX_VALUE));
+		assertEquals(ids(0), index.range(ProductSortKey.PRICE, Long.MIN_VALUE, Long.MIN_VALUE));
+		assertEquals(ids(0, 1), index.range(ProductSortKey.PRICE, null, Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	void nullKeysSortAsZeroButNeverMatchARange() {
+		ProductSortIndex index = new ProductSortIndex();
+		index.put(product(1, "0.00"));
+		index.put(product(2, null));
+		index.put(product(3, "1.00"));
+
+		assertEquals(List.of(1, 2, 3), index.page(ProductSortKey.PRICE, false, null, 0, 10));
+		assertEquals(ids(1), index.range(ProductSortKey.PRICE, 0L, 0L));
+		assertEquals(ids(1, 3), index.range(ProductSortKey.PRICE, null, null));
+	}
+
+	@Test
+	void descendingKeysetPagesContinueWhereTheLastOneStopped() {
+		ProductSortIndex index = new ProductSortIndex();
+		String[] prices = {"5.00", "1.00", "5.00", "3.00", "5.00", "1.00", null, "3.00"};
+		for (int id = 0; id < prices.length; id++) {
+			index.put(product(id, prices[id]));
+		}
+		List<Integer> all = index.page(ProductSortKey.PRICE, true, null, 0, prices.length);
+
+		List<Integer> walked = new ArrayList<>(index.page(ProductSortKey.PRICE, true, null, 0, 3));
+		while (walked.size() < all.size()) {
+			int last = walked.get(walked.size() - 1);
+			long key = prices[last] != null ? ProductSortIndex.cents(new BigDecimal(prices[last])) : 0;
+			List<Integer> next = index.after(ProductSortKey.PRICE, true, key, last, 3);
+			if (next.isEmpty()) {
+				break;
+			}
+			walked.addAll(next);
+		}
+		assertEquals(all, walked);
+		assertEquals(List.of(4, 2, 0, 7, 3, 5, 1, 6), all);
+	}
+
+	@Test
+	void splicedWritesMatchAFullRebuild() {
+		// One splices every write, the other re-sorts from scratch on every query
+		ProductSortIndex spliced = new ProductSortIndex();
+		ProductSortIndex rebuilt = new ProductSortIndex(0);
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++) {
+			int id = random.nextInt(200);
+			if (random.nextInt(5) == 0) {
+				spliced.remove(id);
+				rebuilt.remove(id);
+			} else {
+				String price = random.nextInt(10) == 0 ? null : random.nextInt(50) + ".00";
+				spliced.put(product(id, price));
+				rebuilt.put(product(id, price));
+			}
+		}
+
+		assertEquals(rebuilt.page(ProductSortKey.PRICE, false, null, 0, 200),
+				spliced.page(ProductSortKey.PRICE, false, null, 0, 200));
+		assertEquals(rebuilt.page(ProductSortKey.PRICE, true, null, 0, 200),
+				spliced.page(ProductSortKey.PRICE, true, null, 0, 200));
+		assertEquals(rebuilt.range(ProductSortKey.PRICE, 1000L, 3000L),
+				spliced.range(ProductSortKey.PRICE, 1000L, 3000L));
+	}
+
+	private static Product product(int id, String price) {
+		Product product = new Product();
+		product.setId(id);
+		product.setPrice(price != null ? new BigDecimal(price) : null);
+		return product;
+	}
+
+	private static BitSet ids(int... ids) {
+		BitSet set = new BitSet();
+		for (int id : ids) {
+			set.set(id);
+		}
+		return set;
+	}
+}
@@ -0,0 +1,125 @@
+package com.prav.ecom_proj.index;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSuggestIndexTests {
+
+	@Test
+	void splitNodesStillReachEveryPhrase() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.put(product(1, "Galaxy"));
+		index.put(product(2, "Gallery"));
+		index.put(product(3, "Game"));
+
+		assertEquals(List.of("Galaxy", "Gallery", "Game"), texts(index.suggest("ga", 10)));
+		assertEquals(List.of("Galaxy", "Gallery"), texts(index.suggest("gal", 10)));
+		assertEquals(List.of("Gallery"), texts(index.suggest("gall", 10)));
+		assertEquals(List.of("Game"), texts(index.suggest("gam", 10)));
+		assertEquals(List.of(), texts(index.suggest("galx", 10)));
+		assertEquals(List.of(), texts(index.suggest("gallery s", 10)));
+	}
+
+	@Test
+	void laterWordsOfAPhraseArePrefixesToo() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.put(product(1, "Samsung  Galaxy S24"));
+
+		assertEquals(List.of("Samsung  Galaxy S24"), texts(index.suggest("gal", 10)));
+		assertEquals(List.of("Samsung  Galaxy S24"), texts(index.suggest("galaxy s", 10)));
+		assertEquals(List.of(), texts(index.suggest("alaxy", 10)));
+	}
+
+	@Test
+	void weightsFollowTheProductsCarryingAPhrase() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.put(product(1, "Mug"));
+		index.put(product(2, "Mug"));
+		index.put(product(3, "Mat"));
+		index.put(product(4, "Mat"));
+		index.put(product(5, "Mat"));
+
+		assertEquals(List.of(new Suggestion("Mat", "name", 3), new Suggestion("Mug", "name", 2)), index.suggest("m", 10));
+
+		// Gaining weight promotes, losing it refreshes the cached rankings
+		index.put(product(6, "Mug"));
+		index.put(product(7, "Mug"));
+		assertEquals(List.of("Mug", "Mat"), texts(index.suggest("m", 10)));
+
+		index.remove(6);
+		index.remove(7);
+		index.remove(1);
+		assertEquals(List.of(new Suggestion("Mat", "name", 3), new Suggestion("Mug", "name", 1)), index.suggest("m", 10));
+	}
+
+	@Test
+	void removingTheLastCarrierDropsThePhrase() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.put(product(1, "Galaxy"));
+		index.put(product(2, "Gallery"));
+
+		index.remove(2);
+		assertEquals(List.of("Galaxy"), texts(index.suggest("gal", 10)));
+		assertEquals(List.of(), texts(index.suggest("gall", 10)));
+
+		// Renaming releases the old phrase
+		index.put(product(1, "Tablet"));
+		assertEquals(List.of(), texts(index.suggest("g", 10)));
+		assertEquals(List.of("Tablet"), texts(index.suggest("tab", 10)));
+	}
+
+	@Test
+	void aDroppedTopPhraseIsReplacedFromTheSubtree() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		int count = ProductSuggestIndex.MAX_SUGGESTIONS + 2;
+		for (int i = 0; i < count; i++) {
+			index.put(product(i, "Item " + (char) ('a' + i)));
+		}
+		// Item a is the most popular
+		index.put(product(100, "Item a"));
+
+		List<String> top = texts(index.suggest("item", 100));
+		assertEquals(ProductSuggestIndex.MAX_SUGGESTIONS, top.size());
+		assertEquals("Item a", top.get(0));
+
+		index.remove(0);
+		index.remove(100);
+		top = texts(index.suggest("item", 100));
+		assertEquals(ProductSuggestIndex.MAX_SUGGESTIONS, top.size());
+		assertEquals("Item b", top.get(0));
+		assertEquals("Item " + (char) ('a' + ProductSuggestIndex.MAX_SUGGESTIONS), top.get(top.size() - 1));
+	}
+
+	@Test
+	void lowercasingIgnoresTheDefaultLocale() {
+		Locale previous = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			ProductSuggestIndex index = new ProductSuggestIndex();
+			index.put(product(1, "IPHONE"));
+
+			assertEquals(List.of("IPHONE"), texts(index.suggest("iph", 10)));
+			index.remove(1);
+			assertEquals(List.of(), texts(index.suggest("i", 10)));
+		} finally {
+			Locale.setDefault(previous);
+		}
+	}
+
+	private static Product product(int id, String name) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		return product;
+	}
+
+	private static List<String> texts(List<Suggestion> suggestions) {
+		return suggestions.stream().map(Suggestion::text).toList();
+	}
+}
@@ -0,0 +1,83 @@
+package com.prav.ecom_proj.reactive;
+
+import com.prav.ecom_proj.TestProducts;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.repo.ProductRepo;
+import com.prav.ecom_proj.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Same listing contract as ProductController, so the two stacks can be swapped under one client
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@DirtiesContext
+class ReactiveProductControllerTests {
+
+	// Removed with the class, after its context has been closed
+	@TempDir
+	static Path journal;
+
+	@DynamicPropertySource
+	static void journalDir(DynamicPropertyRegistry registry) {
+		registry.add("ecom.cart.journal.dir", () -> journal.toString());
+	}
+
+	@Autowired
+	private WebTestClient client;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void filterParametersServeTheFacetedListing() {
+		List<Product> saved = new ArrayList<>();
+		for (String price : List.of("5.00", "15.00", "25.00")) {
+			saved.add(TestProducts.save(productRepo, "Reactive Listing " + price, "Reactive Listing", price, 1));
+		}
+		productService.productsImported(saved);
+
+		client.get().uri("/api/products?category=Reactive Listing&minPrice=10&sort=price&direction=desc")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().exists("ETag")
+				.expectBody()
+				.jsonPath("$.total").isEqualTo(2)
+				.jsonPath("$.items[0].price").isEqualTo(25.0)
+				.jsonPath("$.items[1].price").isEqualTo(15.0)
+				.jsonPath("$.facets.category[0].value").isEqualTo("Reactive Listing");
+	}
+
+	@Test
+	void anUnsupportedSortIsRejected() {
+		client.get().uri("/api/products?sort=name")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void withoutParametersEveryProductIsListed() {
+		client.get().uri("/api/products")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$").isArray();
+	}
+}
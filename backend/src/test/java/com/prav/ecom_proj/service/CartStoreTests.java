@@ -0,0 +1,146 @@
+package com.prav.ecom_proj.service;
+
+import com.prav.ecom_proj.TestProducts;
+import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.model.CartTotal;
+import com.prav.ecom_proj.repo.CartRepo;
+import com.prav.ecom_proj.repo.ProductRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Flushes only when a test asks for one
+@SpringBootTest(properties = "ecom.cart.flush-interval-ms=3600000")
+@DirtiesContext
+class CartStoreTests {
+
+	// Removed with the class, after its context has been closed
+	@TempDir
+	static Path journal;
+
+	@DynamicPropertySource
+	static void journalDir(DynamicPropertyRegistry registry) {
+		registry.add("ecom.cart.journal.dir", () -> journal.toString());
+	}
+
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private CartRepo cartRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void replaySkipsLinesForMissingProducts() throws Exception {
+		int productId = saveProduct();
+		double droppedBefore = dropped();
+		Path segment = journal.resolve("cart-0-000000900000.log");
+		Files.writeString(segment, "replayed\t" + productId + "\t2\nreplayed\t999999\t1\n");
+
+		cartStore.recover();
+
+		List<Cart> rows = cartRepo.findByCartId("replayed");
+		assertEquals(1, rows.size());
+		assertEquals(productId, rows.get(0).getProduct().getId());
+		assertEquals(2, rows.get(0).getQuantity());
+		assertEquals(droppedBefore + 1, dropped());
+		assertFalse(Files.exists(segment));
+	}
+
+	@Test
+	void flushAfterProductDeleteKeepsTheRestOfTheCart() throws Exception {
+		int kept = saveProduct();
+		int deleted = saveProduct();
+		cartService.addToCart("before-delete", kept, 1);
+		cartService.addToCart("before-delete", deleted, 1);
+		productService.deleteProduct(deleted);
+
+		cartStore.flush();
+
+		List<Cart> rows = cartRepo.findByCartId("before-delete");
+		assertEquals(1, rows.size());
+		assertEquals(kept, rows.get(0).getProduct().getId());
+		// Nothing left to retry, so the journal is empty
+		try (Stream<Path> segments = Files.list(journal)) {
+			assertEquals(0, segments.count());
+		}
+	}
+
+	@Test
+	void aChangeThatCannotBeJournaledLeavesCartAndStockAsTheyWere() throws Exception {
+		int productId = saveProduct();
+		// Closes every lane, so the next append has to open a segment
+		cartStore.flush();
+		Files.delete(journal);
+		Files.createFile(journal);
+		try {
+			assertThrows(UncheckedIOException.class, () -> cartService.addToCart("unjournaled", productId, 3));
+		} finally {
+			Files.delete(journal);
+			Files.createDirectory(journal);
+		}
+
+		assertEquals(10, productRepo.findById(productId).orElseThrow().getQuantity());
+		assertTrue(cartService.getAllCartItems("unjournaled").isEmpty());
+		assertEquals(0, cartService.getCartTotal("unjournaled").itemCount());
+	}
+
+	@Test
+	void staleTotalsAreSummedInTheDatabaseOnceTheCartIsFlushed() {
+		int productId = saveProduct();
+		cartService.addToCart("summed", productId, 2);
+		cartStore.flush();
+		// A row that no longer matches memory, which only the SQL sum can see
+		Cart row = cartRepo.findByCartId("summed").get(0);
+		row.setQuantity(3);
+		cartRepo.save(row);
+		double mismatchesBefore = mismatches();
+
+		cartStore.productsChanged();
+		CartTotal total = cartService.getCartTotal("summed");
+
+		assertEquals(0, new BigDecimal("15.00").compareTo(total.total()));
+		assertEquals(3, total.itemCount());
+		assertEquals(mismatchesBefore + 1, mismatches());
+	}
+
+	private int saveProduct() {
+		return TestProducts.save(productRepo, "Journal Test Product", "5.00", 10).getId();
+	}
+
+	private double mismatches() {
+		return meterRegistry.counter("ecom.cart.total.mismatch").count();
+	}
+
+	private double dropped() {
+		return meterRegistry.counter("ecom.cart.journal.dropped").count();
+	}
+}
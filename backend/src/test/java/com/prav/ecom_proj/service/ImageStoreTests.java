@@ -0,0 +1,85 @@
+package com.prav.ecom_proj.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImageStoreTests {
+
+	@TempDir
+	private Path dir;
+
+	private ImageStore store;
+
+	@BeforeEach
+	void init() throws Exception {
+		store = new ImageStore();
+		ReflectionTestUtils.setField(store, "baseDir", dir.toString());
+		store.init();
+	}
+
+	@Test
+	void aPinnedUploadSurvivesTheReleaseOfAnEqualImage() throws Exception {
+		String hash = store("same bytes");
+		store.unpin(hash);
+		// A second upload of the same bytes finds the file in place and pins it before its product is saved
+		assertEquals(hash, store("same bytes"));
+
+		store.deleteIfUnused(hash, () -> false);
+		assertNotNull(store.load(hash));
+
+		store.unpin(hash);
+		store.deleteIfUnused(hash, () -> false);
+		assertNull(store.load(hash));
+	}
+
+	@Test
+	void aReferencedImageIsKept() throws Exception {
+		String hash = store("referenced");
+		store.unpin(hash);
+
+		store.deleteIfUnused(hash, () -> true);
+		assertNotNull(store.load(hash));
+	}
+
+	@Test
+	void anImageIsRestoredAfterItWasDeleted() throws Exception {
+		String hash = store("restored");
+		store.unpin(hash);
+		store.deleteIfUnused(hash, () -> false);
+
+		assertEquals(hash, store("restored"));
+		assertNotNull(store.load(hash));
+	}
+
+	@Test
+	void aVariantIsOnlyStoredWhileItsOriginalExists() throws Exception {
+		String hash = store("variant source");
+		store.storeVariant(hash, ImageVariant.THUMB, "jpg", out -> out.write(1));
+		assertNotNull(store.loadVariant(hash, ImageVariant.THUMB));
+
+		store.unpin(hash);
+		store.deleteIfUnused(hash, () -> false);
+		// A resize that finishes after the delete must not leave an orphan behind
+		store.storeVariant(hash, ImageVariant.MEDIUM, "jpg", out -> out.write(1));
+		assertNull(store.loadVariant(hash, ImageVariant.MEDIUM));
+		try (Stream<Path> files = Files.list(store.originalPath(hash).getParent())) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	private String store(String content) throws Exception {
+		return store.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+}
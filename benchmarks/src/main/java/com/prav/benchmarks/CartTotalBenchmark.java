@@ -0,0 +1,73 @@
+package com.prav.benchmarks;
+
+import com.prav.ecom_proj.model.Cart;
+import com.prav.ecom_proj.model.CartTotal;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.service.CartService;
+import com.prav.ecom_proj.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart total aggregation: summing Cart.getSubtotal over the lines (what a total computed from
+ * cart rows costs) against CartService.getCartTotal on an in-memory cart of the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartTotalBenchmark {
+
+    private static final String CART = "bench";
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private List<Cart> cart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = EcomContext.start("cart-" + lines);
+        EcomContext.importProducts(context, lines);
+        cartService = context.getBean(CartService.class);
+
+        cart = new ArrayList<>(lines);
+        for (Product product : context.getBean(ProductService.class).getAllProducts()) {
+            cartService.addToCart(CART, product.getId(), 2);
+            Cart line = new Cart();
+            line.setCartId(CART);
+            line.setProduct(product);
+            line.setQuantity(2);
+            cart.add(line);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal subtotalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Cart line : cart) {
+            total = total.add(line.getSubtotal());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public CartTotal getCartTotal() {
+        return cartService.getCartTotal(CART);
+    }
+}
@@ -0,0 +1,82 @@
+package com.prav.benchmarks;
+
+import com.prav.ecom_proj.EcomProjApplication;
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Boots the ecom backend without a web server, on its own in-memory database and scratch directories
+final class EcomContext {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Dell", "Lenovo", "Asus", "Bose", "Canon", "Nikon", "LG"};
+    private static final String[] KINDS = {"Phone", "Laptop", "Headphones", "Camera", "Monitor", "Tablet", "Speaker", "Watch"};
+    private static final String[] MODELS = {"Pro", "Max", "Mini", "Ultra", "Air", "Lite", "Plus", "Neo"};
+    private static final String[] CATEGORIES = {"Electronics", "Audio", "Computers", "Photography", "Wearables"};
+
+    private EcomContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database) throws IOException {
+        Path scratch = Files.createTempDirectory("ecom-bench-");
+        return new SpringApplicationBuilder(EcomProjApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.sql.init.mode=never",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--ecom.images.dir=" + scratch.resolve("images"),
+                        "--ecom.cart.journal.dir=" + scratch.resolve("cart-journal"));
+    }
+
+    // Loads generated products through the bulk import, so they land in the search indexes too
+    static void importProducts(ConfigurableApplicationContext context, int count) throws IOException {
+        ObjectMapper mapper = context.getBean(ObjectMapper.class);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        for (Product product : products(count)) {
+            ndjson.write(mapper.writeValueAsBytes(product));
+            ndjson.write('\n');
+        }
+        context.getBean(ProductImportService.class).importNdjson(new ByteArrayInputStream(ndjson.toByteArray()), null);
+    }
+
+    /**
+     * Deterministic catalogue with seed-data-like shapes. Each name is brand, kind and model, so a
+     * kind such as "camera" matches about one product in eight.
+     */
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String kind = KINDS[random.nextInt(KINDS.length)];
+            Product product = new Product();
+            product.setId(i);
+            product.setName(brand + " " + kind + " " + MODELS[random.nextInt(MODELS.length)] + " " + i);
+            product.setDesc("The " + kind.toLowerCase() + " from " + brand + ", model year " + (2015 + random.nextInt(10)));
+            product.setBrand(brand);
+            product.setPrice(BigDecimal.valueOf(1000 + random.nextInt(200_000), 2));
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            product.setRelease_date(new Date(1_500_000_000_000L + random.nextInt(200_000_000) * 1000L));
+            product.setAvailable(true);
+            product.setQuantity(1_000_000);
+            products.add(product);
+        }
+        return products;
+    }
+}
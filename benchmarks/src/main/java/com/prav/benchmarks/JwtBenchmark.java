@@ -0,0 +1,65 @@
+package com.prav.benchmarks;
+
+import com.prav.SpringSecurity.service.JWTService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue and the per-request parse/validate path of the JWT filter; the authenticate pair is
+// what one request's token check costs with the verified-token cache hit and with a full parse
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String USERNAME = "bench-user";
+
+    private JWTService jwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JWTService();
+        user = User.withUsername(USERNAME).password("unused").roles("USER").build();
+    }
+
+    // Tokens expire quickly, so each iteration validates a fresh one
+    @Setup(Level.Iteration)
+    public void issueToken() {
+        token = jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean authenticateCached() {
+        Claims claims = jwtService.verify(token);
+        return jwtService.validateToken(claims, user);
+    }
+
+    @Benchmark
+    public boolean authenticateUncached() {
+        Claims claims = jwtService.parse(token);
+        return jwtService.validateToken(claims, user);
+    }
+}
@@ -0,0 +1,125 @@
+package com.prav.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency recording for one load run. Response time is measured from when a request was due to
+ * be sent, not from when it was, so a stalled server is charged for the requests queued behind
+ * the stall (no coordinated omission). Service time, from the actual send, is kept alongside it.
+ * Values are recorded in microseconds.
+ */
+final class LoadReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    static final class Operation {
+        final String name;
+        final Recorder responseTime = new Recorder(SIGNIFICANT_DIGITS);
+        final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        Histogram responses;
+        Histogram services;
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void record(long dueNanos, long sentNanos, long doneNanos) {
+            responseTime.recordValue((doneNanos - dueNanos) / 1000);
+            serviceTime.recordValue((doneNanos - sentNanos) / 1000);
+        }
+
+        // Drops everything recorded so far, e.g. at the end of the warmup
+        void reset() {
+            responseTime.reset();
+            serviceTime.reset();
+            errors.set(0);
+            dropped.set(0);
+        }
+
+        void close() {
+            responses = responseTime.getIntervalHistogram();
+            services = serviceTime.getIntervalHistogram();
+        }
+    }
+
+    private final List<Operation> operations;
+    private final Map<String, Object> settings;
+    private final int seconds;
+
+    LoadReport(List<Operation> operations, Map<String, Object> settings, int seconds) {
+        this.operations = operations;
+        this.settings = settings;
+        this.seconds = seconds;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-8s %9s %7s %7s %8s %8s %8s %8s %8s %9s%n", "op", "count", "errors", "dropped",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation op : operations) {
+            Histogram h = op.responses;
+            out.printf("%-8s %9d %7d %7d %8.1f %8.2f %8.2f %8.2f %8.2f %9.2f%n", op.name, h.getTotalCount(),
+                    op.errors.get(), op.dropped.get(), h.getTotalCount() / (double) seconds,
+                    millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+        out.println("(response time from the scheduled send; service time percentiles are in the report files)");
+    }
+
+    /**
+     * Writes summary.json plus, per operation, the full percentile distribution of both
+     * histograms in HdrHistogram's .hgrm format (milliseconds), which plots directly and diffs
+     * cleanly between runs.
+     */
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("settings", settings);
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Operation op : operations) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", op.responses.getTotalCount());
+            result.put("errors", op.errors.get());
+            result.put("dropped", op.dropped.get());
+            result.put("requestsPerSecond", op.responses.getTotalCount() / (double) seconds);
+            result.put("responseTimeMillis", percentiles(op.responses));
+            result.put("serviceTimeMillis", percentiles(op.services));
+            results.put(op.name, result);
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(op.name + "-response.hgrm")))) {
+                op.responses.outputPercentileDistribution(out, 1000.0);
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(op.name + "-service.hgrm")))) {
+                op.services.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        summary.put("operations", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve("summary.json").toFile(), summary);
+    }
+
+    private static Map<String, Double> percentiles(Histogram h) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            values.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)), millis(h, p));
+        }
+        values.put("max", h.getMaxValue() / 1000.0);
+        return values;
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,182 @@
+package com.prav.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prav.ecom_proj.model.Product;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Seeds a running instance through its public API only, so it works the same against the
+ * embedded app and a deployed one: products through the bulk import, images through the product
+ * update endpoint, and carts through add-to-cart.
+ */
+final class LoadSeeder {
+
+    private static final int UPLOAD_CONCURRENCY = 8;
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Random random = new Random(1);
+
+    LoadSeeder(HttpClient http, String baseUrl) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+    }
+
+    void importProducts(int count) throws IOException, InterruptedException {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        for (Product product : EcomContext.products(count)) {
+            ndjson.write(mapper.writeValueAsBytes(product));
+            ndjson.write('\n');
+        }
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri("/api/products/bulk"))
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson.toByteArray()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(response);
+        JsonNode report = mapper.readTree(response.body());
+        System.out.printf("Imported %d products at %.0f rows/s%n", report.get("imported").asLong(),
+                report.get("rowsPerSecond").asDouble());
+    }
+
+    // Every product id in the catalogue, walked page by page
+    List<Integer> productIds() throws IOException, InterruptedException {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/api/products/page?size=100" + (cursor != null ? "&cursor=" + cursor : "");
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            check(response);
+            JsonNode page = mapper.readTree(response.body());
+            for (JsonNode item : page.get("items")) {
+                ids.add(item.get("id").asInt());
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        return ids;
+    }
+
+    /**
+     * Gives the first {@code count} products a random-noise JPEG of {@code pixels} square. A pool
+     * of distinct images is reused round-robin, so the image store's content addressing dedupes
+     * them as it would dedupe real uploads of the same picture.
+     */
+    void uploadImages(List<Integer> ids, int count, int pixels, int distinct) throws Exception {
+        List<byte[]> images = new ArrayList<>(distinct);
+        for (int i = 0; i < distinct; i++) {
+            images.add(noise(pixels));
+        }
+        Semaphore permits = new Semaphore(UPLOAD_CONCURRENCY);
+        try (ExecutorService uploads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < Math.min(count, ids.size()); i++) {
+                int id = ids.get(i);
+                byte[] image = images.get(i % distinct);
+                futures.add(uploads.submit(() -> {
+                    permits.acquire();
+                    try {
+                        uploadImage(id, image);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        System.out.printf("Uploaded images for %d products (%d distinct, %d px)%n",
+                Math.min(count, ids.size()), distinct, pixels);
+    }
+
+    // Carts named load-0 .. load-(carts-1), each with a few random lines
+    List<String> seedCarts(List<Integer> ids, int carts, int lines) throws IOException, InterruptedException {
+        List<String> cartIds = new ArrayList<>(carts);
+        for (int c = 0; c < carts; c++) {
+            String cartId = "load-" + c;
+            for (int l = 0; l < lines; l++) {
+                int productId = ids.get(random.nextInt(ids.size()));
+                check(http.send(HttpRequest.newBuilder(uri("/api/cart?productId=" + productId + "&quantity=1"))
+                                .header("X-Cart-Id", cartId)
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString()));
+            }
+            cartIds.add(cartId);
+        }
+        System.out.printf("Seeded %d carts with %d lines each%n", carts, lines);
+        return cartIds;
+    }
+
+    private void uploadImage(int id, byte[] image) throws IOException, InterruptedException {
+        HttpResponse<String> current = http.send(HttpRequest.newBuilder(uri("/api/product/" + id)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(current);
+        String boundary = UUID.randomUUID().toString();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        part(body, boundary, "product", null, "application/json", current.body().getBytes(StandardCharsets.UTF_8));
+        part(body, boundary, "imageFile", "product-" + id + ".jpg", "image/jpeg", image);
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        check(http.send(HttpRequest.newBuilder(uri("/api/product/" + id))
+                        .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private static void part(ByteArrayOutputStream body, String boundary, String name, String filename,
+                             String contentType, byte[] content) throws IOException {
+        String header = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (filename != null ? "; filename=\"" + filename + "\"" : "") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        body.write(header.getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Noise doesn't compress, so the JPEG size tracks the pixel count like a busy photo would
+    private byte[] noise(int pixels) throws IOException {
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < pixels; y++) {
+            for (int x = 0; x < pixels; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static void check(HttpResponse<String> response) {
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(response.request().method() + " " + response.uri() + " returned "
+                    + response.statusCode() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.prav.benchmarks;
+
+import com.prav.ecom_proj.EcomProjApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load test of the product and cart APIs. Requests are sent on a fixed schedule
+ * at the target rate whatever the server's latency, each on its own virtual thread, and their
+ * latencies go into HdrHistograms (see LoadReport).
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml compile exec:java -Dexec.args="--products=10000 --rps=300 --duration=60"
+ * </pre>
+ *
+ * Without --target the backend is started in this JVM on a random port with a fresh in-memory
+ * database, which is handy for catching regressions but shares the CPU with the load generator;
+ * to size hardware, point --target at a deployed instance. Options, all --name=value:
+ * <ul>
+ *     <li>target: base URL of a running instance (default: start one in-process)</li>
+ *     <li>products (10000), images (200), image-px (800), distinct-images (16): catalogue to seed;
+ *     images is how many products get an uploaded image, 0 to skip</li>
+ *     <li>carts (100), cart-lines (3): carts to seed, used by the add operation</li>
+ *     <li>rps (200), duration (60), warmup (10): schedule, in requests per second and seconds</li>
+ *     <li>mix (list=30,search=30,view=30,add=10): relative weight of each operation</li>
+ *     <li>max-in-flight (2000): requests past this many outstanding are counted as dropped</li>
+ *     <li>out (benchmarks/target/loadtest): where summary.json and the .hgrm files go</li>
+ * </ul>
+ * With an existing target, products=0 skips seeding and the test runs on what is there.
+ */
+public class LoadTest {
+
+    private static final String[] SEARCH_TERMS = {"camera", "phone", "sony", "laptop", "pro", "headphones",
+            "samsung max", "watch", "lenovo", "mini"};
+    private static final String[] SORTS = {"id", "name", "price"};
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final List<Integer> productIds;
+    private final List<String> cartIds;
+
+    private LoadTest(HttpClient http, String baseUrl, List<Integer> productIds, List<String> cartIds) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.productIds = productIds;
+        this.cartIds = cartIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int products = Integer.parseInt(options.getOrDefault("products", "10000"));
+        int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        Map<String, Integer> mix = mix(options.getOrDefault("mix", "list=30,search=30,view=30,add=10"));
+
+        ConfigurableApplicationContext app = null;
+        String baseUrl = options.get("target");
+        if (baseUrl == null) {
+            app = startBackend();
+            baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(clients)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            LoadSeeder seeder = new LoadSeeder(http, baseUrl);
+            if (products > 0) {
+                seeder.importProducts(products);
+            }
+            List<Integer> ids = seeder.productIds();
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("No products at " + baseUrl);
+            }
+            int images = Integer.parseInt(options.getOrDefault("images", "200"));
+            if (products > 0 && images > 0) {
+                seeder.uploadImages(ids, images, Integer.parseInt(options.getOrDefault("image-px", "800")),
+                        Integer.parseInt(options.getOrDefault("distinct-images", "16")));
+            }
+            List<String> carts = seeder.seedCarts(ids, Integer.parseInt(options.getOrDefault("carts", "100")),
+                    Integer.parseInt(options.getOrDefault("cart-lines", "3")));
+
+            LoadTest test = new LoadTest(http, baseUrl, ids, carts);
+            List<LoadReport.Operation> operations = new ArrayList<>();
+            for (String name : mix.keySet()) {
+                operations.add(new LoadReport.Operation(name));
+            }
+
+            System.out.printf("Warming up for %d s at %d req/s%n", warmup, rps);
+            test.run(operations, mix, rps, warmup, maxInFlight, clients);
+            operations.forEach(LoadReport.Operation::reset);
+            System.out.printf("Measuring for %d s at %d req/s against %s%n", duration, rps, baseUrl);
+            test.run(operations, mix, rps, duration, maxInFlight, clients);
+            operations.forEach(LoadReport.Operation::close);
+
+            Map<String, Object> settings = new LinkedHashMap<>(options);
+            settings.put("target", baseUrl);
+            settings.put("products", ids.size());
+            settings.put("rps", rps);
+            settings.put("duration", duration);
+            settings.put("mix", mix);
+            LoadReport report = new LoadReport(operations, settings, duration);
+            report.print(System.out);
+            Path out = Path.of(options.getOrDefault("out", System.getProperty("loadtest.out", "target/loadtest")));
+            report.write(out);
+            System.out.println("Report written to " + out.toAbsolutePath());
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    /**
+     * Sends one request every 1/rps seconds for the given time. The schedule never waits for
+     * responses; if the server falls behind, requests pile up in flight and their queueing shows
+     * in the response times. Past maxInFlight outstanding requests, new ones are dropped and
+     * counted rather than letting the generator run out of memory.
+     */
+    private void run(List<LoadReport.Operation> operations, Map<String, Integer> mix, int rps, int seconds,
+                     int maxInFlight, ExecutorService clients) throws InterruptedException {
+        int[] weights = mix.values().stream().mapToInt(Integer::intValue).toArray();
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (long due = start; due < end; due += interval) {
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadReport.Operation op = operations.get(pick(weights, totalWeight));
+            if (!inFlight.tryAcquire()) {
+                op.dropped.incrementAndGet();
+                continue;
+            }
+            long scheduled = due;
+            clients.execute(() -> {
+                try {
+                    long sent = System.nanoTime();
+                    if (send(op.name)) {
+                        op.record(scheduled, sent, System.nanoTime());
+                    } else {
+                        op.errors.incrementAndGet();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // Let the tail of the schedule finish before the histograms are read
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    private boolean send(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            return switch (operation) {
+                case "list" -> get("/api/products/page?size=24&sort=" + SORTS[random.nextInt(SORTS.length)]
+                        + "&direction=" + (random.nextBoolean() ? "asc" : "desc"));
+                case "search" -> get("/api/products/search?size=24&keyword="
+                        + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "+"));
+                case "view" -> get("/api/product/" + productIds.get(random.nextInt(productIds.size())));
+                case "add" -> ok(http.send(HttpRequest.newBuilder(uri("/api/cart?quantity=1&productId="
+                                        + productIds.get(random.nextInt(productIds.size()))))
+                                .header("X-Cart-Id", cartIds.get(random.nextInt(cartIds.size())))
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build(),
+                        HttpResponse.BodyHandlers.discarding()));
+                default -> throw new IllegalArgumentException("Unknown operation " + operation);
+            };
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean get(String path) throws Exception {
+        return ok(http.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private static boolean ok(HttpResponse<?> response) {
+        return response.statusCode() < 300;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static int pick(int[] weights, int total) {
+        int r = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static ConfigurableApplicationContext startBackend() throws Exception {
+        Path scratch = Files.createTempDirectory("ecom-load-");
+        return new SpringApplicationBuilder(EcomProjApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--ecom.images.dir=" + scratch.resolve("images"),
+                        "--ecom.cart.journal.dir=" + scratch.resolve("cart-journal"));
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> mix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            String name = parts[0].strip();
+            if (!List.of("list", "search", "view", "add").contains(name)) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + name);
+            }
+            int weight = Integer.parseInt(parts[1].strip());
+            if (weight > 0) {
+                mix.put(name, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations");
+        }
+        return mix;
+    }
+}
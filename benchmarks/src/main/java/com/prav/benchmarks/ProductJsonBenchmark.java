@@ -0,0 +1,64 @@
+package com.prav.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.prav.ecom_proj.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product lists as the API writes them. The "with image" case embeds
+ * the image bytes in every product, as responses did before images moved to their own endpoint,
+ * and shows what that payload shape costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    // Old product payload: the entity plus its image, base64-encoded by Jackson
+    public record ProductWithImage(@JsonUnwrapped Product product, byte[] imageData) {
+    }
+
+    @Param({"20", "1000"})
+    public int products;
+
+    @Param({"50000"})
+    public int imageBytes;
+
+    private ObjectWriter writer;
+    private List<Product> plain;
+    private List<ProductWithImage> withImage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Configured the way Spring Boot configures the mapper behind the controllers
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        plain = EcomContext.products(products);
+        withImage = new ArrayList<>(products);
+        Random random = new Random(7);
+        for (Product product : plain) {
+            byte[] image = new byte[imageBytes];
+            random.nextBytes(image);
+            withImage.add(new ProductWithImage(product, image));
+        }
+    }
+
+    @Benchmark
+    public byte[] withoutImage() throws Exception {
+        return writer.writeValueAsBytes(plain);
+    }
+
+    @Benchmark
+    public byte[] withImage() throws Exception {
+        return writer.writeValueAsBytes(withImage);
+    }
+}
@@ -0,0 +1,58 @@
+package com.prav.benchmarks;
+
+import com.prav.ecom_proj.model.Product;
+import com.prav.ecom_proj.model.SearchResult;
+import com.prav.ecom_proj.repo.ProductRepo;
+import com.prav.ecom_proj.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search against H2 at growing catalogue sizes: the LIKE query in ProductRepo, which
+ * scans and returns every match, against the first page from the in-memory search index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    @Param({"camera"})
+    public String keyword;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepo repo;
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = EcomContext.start("search-" + rows);
+        EcomContext.importProducts(context, rows);
+        repo = context.getBean(ProductRepo.class);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> likeQuery() {
+        return repo.searchProducts(keyword);
+    }
+
+    @Benchmark
+    public SearchResult indexSearch() {
+        return productService.searchProducts(keyword, 0, 50);
+    }
+}
@@ -10,6 +10,8 @@ const AppContext = createContext({
   addToCart: (productId, quantity) => {},
   removeFromCart: (cartItemId) => {},
   refreshData: () => {},
+  loadMoreData: () => {},
+  hasMoreData: false,
   fetchCartItems: () => {},
   updateCartQuantity: (cartItemId, quantity) => {},
   clearCart: () => {},
@@ -23,19 +25,32 @@ export const AppProvider = ({ children }) => {
   const [cart, setCart] = useState(JSON.parse(localStorage.getItem('cart')) || []);
   const [cartItems, setCartItems] = useState([]);
   const [cartTotal, setCartTotal] = useState(0);
+  const [nextCursor, setNextCursor] = useState(null);
 
-  // Fetch all products
+  const PAGE_SIZE = 24;
+
+  // Fetch one keyset page of products; pass the previous nextCursor to continue
+  const fetchProductPage = async (cursor) => {
+    const params = { size: PAGE_SIZE };
+    if (cursor) {
+      params.cursor = cursor;
+    }
+    const response = await axios.get("/products/page", { params });
+    if (response.status !== 200) {
+      throw new Error(`Unexpected status code: ${response.status}`);
+    }
+    return response.data;
+  };
+
+  // Fetch the first page of products
   const refreshData = async () => {
     setIsLoading(true);
     setIsError("");
     try {
-      const response = await axios.get("/products");
-      if (response.status === 200 || response.status === 302) {
-        setData(response.data);
-        setIsError("");
-      } else {
-        setIsError(`Unexpected status code: ${response.status}`);
-      }
+      const page = await fetchProductPage(null);
+      setData(page.items);
+      setNextCursor(page.nextCursor);
+      setIsError("");
     } catch (error) {
       setIsError(error.message);
     } finally {
@@ -43,6 +58,20 @@ export const AppProvider = ({ children }) => {
     }
   };
 
+  // Append the next page of products, if any
+  const loadMoreData = async () => {
+    if (!nextCursor) {
+      return;
+    }
+    try {
+      const page = await fetchProductPage(nextCursor);
+      setData((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      setIsError(error.message);
+    }
+  };
+
   // Fetch cart items from backend
   const fetchCartItems = async () => {
     try {
@@ -151,6 +180,8 @@ export const AppProvider = ({ children }) => {
         addToCart,
         removeFromCart,
         refreshData,
+        loadMoreData,
+        hasMoreData: nextCursor !== null,
         fetchCartItems,
         updateCartQuantity,
         clearCart,
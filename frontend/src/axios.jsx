@@ -1,7 +1,18 @@
 import axios from "axios";
 
+// Each browser gets its own cart, identified by a random id kept in localStorage
+const getCartId = () => {
+  let cartId = localStorage.getItem("cartId");
+  if (!cartId) {
+    cartId = crypto.randomUUID();
+    localStorage.setItem("cartId", cartId);
+  }
+  return cartId;
+};
+
 const API = axios.create({
   baseURL: "http://localhost:9090/api",
+  headers: { "X-Cart-Id": getCartId() },
   validateStatus: function (status) {
     // Accept all status codes, don't throw error for 3xx
     return status >= 200 && status < 500;
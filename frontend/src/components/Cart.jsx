@@ -25,7 +25,7 @@ const Cart = () => {
             try {
               const response = await axios.get(
                 `http://localhost:9090/api/product/${cartItem.product.id}/image`,
-                { responseType: "blob" }
+                { responseType: "blob", params: { size: "thumb" } }
               );
               const imageUrl = URL.createObjectURL(response.data);
               return { ...cartItem, imageUrl };
@@ -5,7 +5,7 @@ import moment from "moment";
 import AppContext from "../Context/Context";
 
 const Home = () => {
-  const { data, isError, isLoading, refreshData, addToCart } = useContext(AppContext);
+  const { data, isError, isLoading, refreshData, loadMoreData, hasMoreData, addToCart } = useContext(AppContext);
   const [products, setProducts] = useState([]);
   const [filteredProducts, setFilteredProducts] = useState([]);
   const [isDataFetched, setIsDataFetched] = useState(false);
@@ -14,6 +14,8 @@ const Home = () => {
   const [searchKeyword, setSearchKeyword] = useState("");
   const [selectedCategory, setSelectedCategory] = useState("");
   const [isSearching, setIsSearching] = useState(false);
+  // Matches on the server for the current search or category, which can be more than are shown
+  const [resultTotal, setResultTotal] = useState(0);
   
   const location = useLocation();
 
@@ -28,9 +30,11 @@ const Home = () => {
     if (data && data.length > 0) {
       setProducts(data);
       setFilteredProducts(data);
-      // Fetch images for all products
+      // Fetch images for newly loaded products only
       data.forEach((product) => {
-        fetchProductImage(product.id);
+        if (!productImages[product.id]) {
+          fetchProductImage(product.id, product.imageHash);
+        }
       });
     }
   }, [data]);
@@ -46,7 +50,7 @@ const Home = () => {
       handleSearch(searchParam);
     } else if (categoryParam) {
       setSelectedCategory(categoryParam);
-      filterByCategory(categoryParam, data);
+      filterByCategory(categoryParam);
     } else {
       setSearchKeyword("");
       setSelectedCategory("");
@@ -54,11 +58,12 @@ const Home = () => {
     }
   }, [location.search, data]);
 
-  const fetchProductImage = async (productId) => {
+  const fetchProductImage = async (productId, imageHash) => {
     try {
+      // Grid tiles only need the thumbnail; pinning the URL to the content hash lets the browser cache it indefinitely
       const response = await axios.get(
         `http://localhost:9090/api/product/${productId}/image`,
-        { responseType: "blob" }
+        { responseType: "blob", params: imageHash ? { size: "thumb", v: imageHash } : { size: "thumb" } }
       );
       const imageUrl = URL.createObjectURL(response.data);
       setProductImages((prev) => ({
@@ -83,42 +88,47 @@ const Home = () => {
     setIsSearching(true);
     try {
       const response = await axios.get(
-        `http://localhost:9090/api/products/search?keyword=${keyword}`
+        "http://localhost:9090/api/products/search",
+        { params: { keyword, size: 100 } }
       );
-      setFilteredProducts(response.data);
-      
-      // Fetch images for search results
-      response.data.forEach((product) => {
-        if (!productImages[product.id]) {
-          fetchProductImage(product.id);
-        }
-      });
+      showResults(response.data, Number(response.headers["x-total-count"] ?? response.data.length));
     } catch (error) {
+      // Only the server sees the whole catalog, so there is nothing to fall back to here
       console.error("Search error:", error);
-      // Fallback to client-side filtering
-      const filtered = data.filter(
-        (product) =>
-          product.name?.toLowerCase().includes(keyword.toLowerCase()) ||
-          product.desc?.toLowerCase().includes(keyword.toLowerCase()) ||
-          product.brand?.toLowerCase().includes(keyword.toLowerCase()) ||
-          product.category?.toLowerCase().includes(keyword.toLowerCase())
-      );
-      setFilteredProducts(filtered);
+      showResults([], 0);
     } finally {
       setIsSearching(false);
     }
   };
 
-  const filterByCategory = (category, productData = data) => {
+  const filterByCategory = async (category) => {
     if (!category) {
-      setFilteredProducts(productData);
+      setFilteredProducts(data);
       return;
     }
-    const filtered = productData.filter(
-      (product) =>
-        product.category?.toLowerCase() === category.toLowerCase()
-    );
-    setFilteredProducts(filtered);
+    setIsSearching(true);
+    try {
+      const response = await axios.get(
+        "http://localhost:9090/api/products",
+        { params: { category, size: 100 } }
+      );
+      showResults(response.data.items, response.data.total);
+    } catch (error) {
+      console.error("Category filter error:", error);
+      showResults([], 0);
+    } finally {
+      setIsSearching(false);
+    }
+  };
+
+  const showResults = (results, total) => {
+    setFilteredProducts(results);
+    setResultTotal(total);
+    results.forEach((product) => {
+      if (!productImages[product.id]) {
+        fetchProductImage(product.id, product.imageHash);
+      }
+    });
   };
 
   const clearFilters = () => {
@@ -189,7 +199,8 @@ const Home = () => {
                 {selectedCategory && `Category: ${selectedCategory}`}
               </h4>
               <p style={{ color: "var(--text_color)", opacity: "0.7", marginBottom: "0" }}>
-                {filteredProducts.length} product(s) found
+                {resultTotal} product(s) found
+                {resultTotal > filteredProducts.length && `, showing the first ${filteredProducts.length}`}
               </p>
             </div>
             <button
@@ -294,6 +305,15 @@ const Home = () => {
           ))}
         </div>
       )}
+
+      {/* Load next page */}
+      {hasMoreData && !searchKeyword && !selectedCategory && (
+        <div className="text-center" style={{ padding: "2rem 1rem" }}>
+          <button className="btn btn-outline-primary" onClick={loadMoreData}>
+            Load More
+          </button>
+        </div>
+      )}
     </>
   );
 };
@@ -1,6 +1,7 @@
 import React, { useEffect, useState, useContext } from "react";
 import { Link, useNavigate } from "react-router-dom";
 import AppContext from "../Context/Context";
+import axios from "../axios";
 
 const Navbar = () => {
   const { cartItems } = useContext(AppContext);
@@ -13,6 +14,7 @@ const Navbar = () => {
 
   const [theme, setTheme] = useState(getInitialTheme());
   const [searchKeyword, setSearchKeyword] = useState("");
+  const [suggestions, setSuggestions] = useState([]);
   
   const toggleTheme = () => {
     const newTheme = theme === "dark-theme" ? "light-theme" : "dark-theme";
@@ -24,6 +26,24 @@ const Navbar = () => {
     document.body.className = theme;
   }, [theme]);
 
+  // Typeahead: ask the suggest endpoint once typing pauses, instead of searching on every key
+  useEffect(() => {
+    const prefix = searchKeyword.trim();
+    if (!prefix) {
+      setSuggestions([]);
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await axios.get("/products/suggest", { params: { prefix, limit: 8 } });
+        setSuggestions(response.status === 200 ? response.data : []);
+      } catch (error) {
+        setSuggestions([]);
+      }
+    }, 150);
+    return () => clearTimeout(timer);
+  }, [searchKeyword]);
+
   const handleSearch = (e) => {
     e.preventDefault();
     if (searchKeyword.trim()) {
@@ -129,8 +149,17 @@ const Navbar = () => {
                   aria-label="Search"
                   value={searchKeyword}
                   onChange={handleSearchInput}
+                  list="search-suggestions"
+                  autoComplete="off"
                   style={{ minWidth: "200px" }}
                 />
+                <datalist id="search-suggestions">
+                  {suggestions.map((suggestion) => (
+                    <option key={`${suggestion.field}:${suggestion.text}`} value={suggestion.text}>
+                      {suggestion.field}
+                    </option>
+                  ))}
+                </datalist>
                 <button 
                   className="btn btn-outline-primary" 
                   type="submit"
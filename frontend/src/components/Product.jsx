@@ -30,7 +30,7 @@ const Product = () => {
         try {
           const imgResponse = await axios.get(
             `http://localhost:9090/api/product/${id}/image`,
-            { responseType: "blob" }
+            { responseType: "blob", params: { size: "medium" } }
           );
           console.log("Image fetched successfully");
           setImageUrl(URL.createObjectURL(imgResponse.data));
@@ -112,7 +112,7 @@ const Product = () => {
         try {
           const imgResponse = await axios.get(
             `http://localhost:9090/api/product/${id}/image`,
-            { responseType: "blob" }
+            { responseType: "blob", params: { size: "medium" } }
           );
           setImageUrl(URL.createObjectURL(imgResponse.data));
         } catch (imgError) {